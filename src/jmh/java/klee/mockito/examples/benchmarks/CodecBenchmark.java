@@ -0,0 +1,97 @@
+package klee.mockito.examples.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import klee.mockito.examples.codec.ExamCodec;
+import klee.mockito.examples.models.Exam;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ExamCodec vs reflection based JSON (Jackson databind) for one exam, both ways.
+// Run with -prof gc to compare the allocation per operation as well.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    @Param({"5", "50"})
+    int questionsPerExam;
+
+    Exam exam;
+    ByteBuffer buffer;
+    ByteBuffer encoded;
+    ObjectMapper mapper;
+    byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> questions = new ArrayList<>(questionsPerExam);
+        for (int i = 0; i < questionsPerExam; i++)
+            questions.add("What is the answer to question number " + i + "?");
+        exam = new Exam(1_234_567L, ExamServiceBenchmark.name(42));
+        exam.setQuestions(questions);
+
+        buffer = ByteBuffer.allocate(ExamCodec.maxEncodedSize(exam));
+        new ExamCodec().encode(exam, buffer);
+        encoded = buffer.duplicate().flip();
+
+        mapper = new ObjectMapper().addMixIn(Exam.class, ExamMixIn.class);
+        json = mapper.writeValueAsBytes(exam);
+    }
+
+    @Benchmark
+    public ByteBuffer codecEncode() {
+        buffer.clear();
+        new ExamCodec().encode(exam, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Exam codecDecode() {
+        return new ExamCodec().decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        try {
+            return mapper.writeValueAsBytes(exam);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public Exam jsonDecode() {
+        try {
+            return mapper.readValue(json, Exam.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Exam has no default constructor, Jackson is pointed at the (id, name) one
+    abstract static class ExamMixIn {
+        @JsonCreator
+        ExamMixIn(@JsonProperty("id") Long id, @JsonProperty("name") String name) {
+        }
+    }
+}
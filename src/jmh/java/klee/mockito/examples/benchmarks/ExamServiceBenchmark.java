@@ -0,0 +1,93 @@
+package klee.mockito.examples.benchmarks;
+
+import klee.mockito.examples.index.ExamNameIndex;
+import klee.mockito.examples.loadtest.FixedQuestionRepository;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.services.ExamServiceImpl;
+import klee.mockito.examples.services.IExamService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput gives ops/s, SampleTime gives the average and the p50..p99.99 latencies.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExamServiceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    @Param({"5", "50"})
+    int questionsPerExam;
+
+    IExamService service;
+    IExamService indexedService;
+    List<String> questions;
+
+    // rebuilt every iteration so the save benchmark doesn't keep growing the catalog
+    @Setup(Level.Iteration)
+    public void setUp() {
+        questions = new ArrayList<>(questionsPerExam);
+        for (int i = 0; i < questionsPerExam; i++)
+            questions.add("question " + i);
+
+        InMemoryExamRepository examRepository = new InMemoryExamRepository();
+        for (int i = 0; i < catalogSize; i++)
+            examRepository.save(new Exam(null, name(i)));
+        IQuestionRepository questionRepository = new FixedQuestionRepository(questions);
+
+        service = new ExamServiceImpl(examRepository, questionRepository);
+        indexedService = new ExamServiceImpl(examRepository, questionRepository, new ExamNameIndex());
+        indexedService.findExamByName(name(0));
+    }
+
+    @Benchmark
+    public Optional<Exam> findExamByName() {
+        return service.findExamByName(randomName());
+    }
+
+    @Benchmark
+    public Optional<Exam> findExamByNameIndexed() {
+        return indexedService.findExamByName(randomName());
+    }
+
+    @Benchmark
+    public Exam findExamByNameWithQuestions() {
+        return service.findExamByNameWithQuestions(randomName());
+    }
+
+    @Benchmark
+    public Exam save() {
+        Exam exam = new Exam(null, "New exam");
+        exam.setQuestions(questions);
+        return service.save(exam);
+    }
+
+    private String randomName() {
+        return name(ThreadLocalRandom.current().nextInt(catalogSize));
+    }
+
+    static String name(int i) {
+        return String.format("Exam-%07d", i);
+    }
+}
@@ -0,0 +1,67 @@
+package klee.mockito.examples.benchmarks;
+
+import klee.mockito.examples.index.ParallelNameMatcher;
+import klee.mockito.examples.models.Exam;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Sequential stream filter vs the fork-join matcher over an unindexed catalog.
+// "random" hits a random exam, "miss" has to look at every name.
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameMatcherBenchmark {
+    @Param({"10000", "1000000", "5000000"})
+    int catalogSize;
+
+    @Param({"random", "miss"})
+    String query;
+
+    List<Exam> exams;
+    ParallelNameMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        exams = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++)
+            exams.add(new Exam((long) i, ExamServiceBenchmark.name(i)));
+        // threshold 0 so the parallel path is measured at every size
+        matcher = new ParallelNameMatcher(ForkJoinPool.commonPool(), 0, ParallelNameMatcher.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Benchmark
+    public Optional<Exam> sequential() {
+        String name = name();
+        return exams.stream()
+                .filter(e -> e.getName().contains(name))
+                .findFirst();
+    }
+
+    @Benchmark
+    public Optional<Exam> parallel() {
+        return matcher.findFirst(exams, name());
+    }
+
+    private String name() {
+        return query.equals("miss") ? "Physics" : ExamServiceBenchmark.name(ThreadLocalRandom.current().nextInt(catalogSize));
+    }
+}
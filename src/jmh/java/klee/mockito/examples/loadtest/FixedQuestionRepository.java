@@ -0,0 +1,23 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.repositories.IQuestionRepository;
+
+import java.util.List;
+
+// Every exam has the same questions and writes go nowhere, shared by the load test and the benchmarks.
+public class FixedQuestionRepository implements IQuestionRepository {
+    private final List<String> questions;
+
+    public FixedQuestionRepository(List<String> questions) {
+        this.questions = questions;
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        return questions;
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+    }
+}
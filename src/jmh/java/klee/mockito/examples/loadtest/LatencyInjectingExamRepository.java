@@ -0,0 +1,44 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.IExamRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// Stand-in for ExamRepositoryImpl: real data from the delegate, the sleep from a LatencyModel.
+public class LatencyInjectingExamRepository implements IExamRepository {
+    private final IExamRepository delegate;
+    private final LatencyModel readLatency;
+    private final LatencyModel writeLatency;
+
+    public LatencyInjectingExamRepository(IExamRepository delegate, LatencyModel readLatency, LatencyModel writeLatency) {
+        this.delegate = delegate;
+        this.readLatency = readLatency;
+        this.writeLatency = writeLatency;
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        LatencyModel.sleep(writeLatency.nextDelayNanos());
+        return delegate.save(exam);
+    }
+
+    @Override
+    public List<Exam> saveAll(List<Exam> exams) {
+        LatencyModel.sleep(writeLatency.nextDelayNanos());
+        return delegate.saveAll(exams);
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        LatencyModel.sleep(readLatency.nextDelayNanos());
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        LatencyModel.sleep(readLatency.nextDelayNanos());
+        return delegate.findById(id);
+    }
+}
@@ -0,0 +1,38 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.repositories.IQuestionRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Stand-in for QuestionRepositoryImpl, a bulk read pays the read latency once like the real one.
+public class LatencyInjectingQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final LatencyModel readLatency;
+    private final LatencyModel writeLatency;
+
+    public LatencyInjectingQuestionRepository(IQuestionRepository delegate, LatencyModel readLatency, LatencyModel writeLatency) {
+        this.delegate = delegate;
+        this.readLatency = readLatency;
+        this.writeLatency = writeLatency;
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        LatencyModel.sleep(readLatency.nextDelayNanos());
+        return delegate.findQuestionsByExamId(id);
+    }
+
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        LatencyModel.sleep(readLatency.nextDelayNanos());
+        return delegate.findQuestionsByExamIds(ids);
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        LatencyModel.sleep(writeLatency.nextDelayNanos());
+        delegate.saveMany(questions);
+    }
+}
@@ -0,0 +1,47 @@
+package klee.mockito.examples.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Delay injected by the repository stand-ins, one draw per call.
+public interface LatencyModel {
+    long nextDelayNanos();
+
+    static LatencyModel none() {
+        return () -> 0;
+    }
+
+    static LatencyModel fixed(Duration delay) {
+        long nanos = delay.toNanos();
+        return () -> nanos;
+    }
+
+    static LatencyModel uniform(Duration min, Duration max) {
+        long low = min.toNanos();
+        long high = max.toNanos();
+        return () -> low == high ? low : ThreadLocalRandom.current().nextLong(low, high + 1);
+    }
+
+    // mostly around median, with a tail of slowCalls (0..1) taking slow instead
+    static LatencyModel withTail(Duration median, double slowCalls, Duration slow) {
+        long fast = median.toNanos();
+        long tail = slow.toNanos();
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < slowCalls)
+                return tail;
+            return (long) Math.max(0, fast + random.nextGaussian() * fast / 4);
+        };
+    }
+
+    static void sleep(long nanos) {
+        if (nanos <= 0)
+            return;
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
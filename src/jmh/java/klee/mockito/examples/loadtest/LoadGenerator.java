@@ -0,0 +1,115 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.metrics.LatencyHistogram;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.services.IExamService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Replays a LoadProfile against an IExamService with one platform thread per worker.
+// names are ordered by popularity, the Zipfian rank picks the name to look up. Calls made during
+// the warmup are issued but not recorded.
+public class LoadGenerator {
+    private final IExamService service;
+    private final List<String> names;
+    private final List<String> saveQuestions;
+    private final AtomicLong saved = new AtomicLong();
+
+    public LoadGenerator(IExamService service, List<String> names, List<String> saveQuestions) {
+        if (names.isEmpty())
+            throw new IllegalArgumentException("names must not be empty");
+        this.service = service;
+        this.names = names;
+        this.saveQuestions = saveQuestions;
+    }
+
+    public LoadReport run(LoadProfile profile) {
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+        ZipfianGenerator keys = new ZipfianGenerator(names.size(), profile.zipfExponent());
+
+        long start = System.nanoTime();
+        long measureFrom = start + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        // with a target rate every worker gets an equal share of it
+        long intervalNanos = profile.targetRate() > 0
+                ? (long) (1e9 * profile.concurrency() / profile.targetRate())
+                : 0;
+
+        List<Thread> workers = new ArrayList<>(profile.concurrency());
+        for (int i = 0; i < profile.concurrency(); i++) {
+            Random random = new Random(profile.seed() + i);
+            Thread worker = new Thread(() -> {
+                long scheduled = start;
+                while (true) {
+                    long now = System.nanoTime();
+                    if (intervalNanos > 0) {
+                        if (scheduled > now)
+                            LatencyModel.sleep(scheduled - now);
+                    } else {
+                        scheduled = now;
+                    }
+                    if (scheduled >= end)
+                        return;
+
+                    Operation operation = profile.pick(random.nextDouble());
+                    String name = names.get(keys.next(random));
+                    boolean failed = false;
+                    try {
+                        call(operation, name);
+                    } catch (RuntimeException e) {
+                        failed = true;
+                    }
+                    if (scheduled >= measureFrom) {
+                        if (failed) {
+                            errors.get(operation).increment();
+                        } else {
+                            latencies.get(operation).record(System.nanoTime() - scheduled);
+                        }
+                    }
+                    scheduled += intervalNanos;
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+        Duration measured = Duration.ofNanos(Math.max(0, Math.min(System.nanoTime(), end) - measureFrom));
+        return new LoadReport(measured, latencies, errorCounts);
+    }
+
+    private void call(Operation operation, String name) {
+        switch (operation) {
+            case FIND_BY_NAME -> service.findExamByName(name);
+            case FIND_WITH_QUESTIONS -> service.findExamByNameWithQuestions(name);
+            case SAVE -> {
+                Exam exam = new Exam(null, name + " (load " + saved.incrementAndGet() + ")");
+                exam.setQuestions(saveQuestions);
+                service.save(exam);
+            }
+        }
+    }
+}
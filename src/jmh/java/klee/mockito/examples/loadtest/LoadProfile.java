@@ -0,0 +1,70 @@
+package klee.mockito.examples.loadtest;
+
+import java.time.Duration;
+
+// What LoadGenerator runs: the operation mix (relative weights), the key skew, how many workers,
+// for how long, and at which rate. targetRate 0 runs closed loop, every worker issues its next
+// call as soon as the previous one returned. With a target rate the calls are scheduled and
+// latency is measured from the scheduled start, so a stall also counts for the calls it delayed.
+public record LoadProfile(double findWeight,
+                          double findWithQuestionsWeight,
+                          double saveWeight,
+                          double zipfExponent,
+                          int concurrency,
+                          Duration warmup,
+                          Duration duration,
+                          double targetRate,
+                          long seed) {
+
+    public LoadProfile {
+        if (findWeight < 0 || findWithQuestionsWeight < 0 || saveWeight < 0
+                || findWeight + findWithQuestionsWeight + saveWeight == 0)
+            throw new IllegalArgumentException("operation weights must be >= 0 and not all 0");
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("concurrency must be positive");
+    }
+
+    public static LoadProfile defaults() {
+        return new LoadProfile(70, 25, 5, 0.99, 16, Duration.ofSeconds(5), Duration.ofSeconds(30), 0, 42);
+    }
+
+    public LoadProfile withMix(double findWeight, double findWithQuestionsWeight, double saveWeight) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    public LoadProfile withZipfExponent(double zipfExponent) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    public LoadProfile withConcurrency(int concurrency) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    public LoadProfile withDuration(Duration warmup, Duration duration) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    public LoadProfile withTargetRate(double targetRate) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    public LoadProfile withSeed(long seed) {
+        return new LoadProfile(findWeight, findWithQuestionsWeight, saveWeight, zipfExponent, concurrency,
+                warmup, duration, targetRate, seed);
+    }
+
+    Operation pick(double u) {
+        double total = findWeight + findWithQuestionsWeight + saveWeight;
+        double x = u * total;
+        if (x < findWeight)
+            return Operation.FIND_BY_NAME;
+        if (x < findWeight + findWithQuestionsWeight)
+            return Operation.FIND_WITH_QUESTIONS;
+        return Operation.SAVE;
+    }
+}
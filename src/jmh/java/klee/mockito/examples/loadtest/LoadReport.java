@@ -0,0 +1,51 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Outcome of a LoadGenerator run, latencies in nanoseconds.
+public record LoadReport(Duration elapsed,
+                         Map<Operation, LatencyHistogram> latencies,
+                         Map<Operation, Long> errors) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    public long totalCalls() {
+        return latencies.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double throughput() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : totalCalls() / seconds;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d calls, %d errors in %.1fs, %.1f ops/s%n",
+                totalCalls(), totalErrors(), elapsed.toNanos() / 1e9, throughput()));
+        out.append(String.format("%-20s %9s %7s %10s", "operation", "calls", "errors", "mean"));
+        for (double p : PERCENTILES)
+            out.append(String.format(" %10s", "p" + p));
+        out.append(String.format(" %10s%n", "max"));
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            out.append(String.format("%-20s %9d %7d %10s", entry.getKey(), histogram.getCount(),
+                    errors.getOrDefault(entry.getKey(), 0L), millis((long) histogram.getMean())));
+            for (double p : PERCENTILES)
+                out.append(String.format(" %10s", millis(histogram.valueAtPercentile(p))));
+            out.append(String.format(" %10s%n", millis(histogram.getMax())));
+        }
+        return out.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
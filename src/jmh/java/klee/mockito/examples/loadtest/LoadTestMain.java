@@ -0,0 +1,68 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.index.ExamNameIndex;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
+import klee.mockito.examples.services.ExamServiceImpl;
+import klee.mockito.examples.services.IExamService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Runs ExamServiceImpl over latency-injecting stand-ins and prints the report. Built with the
+// benchmarks profile, e.g.
+//   mvn -Pbenchmarks package
+//   java -cp target/benchmarks.jar klee.mockito.examples.loadtest.LoadTestMain catalog=100000 concurrency=64 mix=80,15,5 rate=2000
+// The default latencies are the sleeps of ExamRepositoryImpl (3s) and QuestionRepositoryImpl (2s)
+// scaled down to milliseconds.
+public class LoadTestMain {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int at = arg.indexOf('=');
+            if (at < 0)
+                throw new IllegalArgumentException("expected key=value, got " + arg);
+            options.put(arg.substring(0, at), arg.substring(at + 1));
+        }
+
+        int catalog = Integer.parseInt(options.getOrDefault("catalog", "10000"));
+        String[] mix = options.getOrDefault("mix", "70,25,5").split(",");
+        LoadProfile profile = LoadProfile.defaults()
+                .withMix(Double.parseDouble(mix[0]), Double.parseDouble(mix[1]), Double.parseDouble(mix[2]))
+                .withZipfExponent(Double.parseDouble(options.getOrDefault("zipf", "0.99")))
+                .withConcurrency(Integer.parseInt(options.getOrDefault("concurrency", "16")))
+                .withDuration(Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))),
+                        Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))))
+                .withTargetRate(Double.parseDouble(options.getOrDefault("rate", "0")));
+        Duration examLatency = Duration.ofMillis(Long.parseLong(options.getOrDefault("examLatencyMs", "3")));
+        Duration questionLatency = Duration.ofMillis(Long.parseLong(options.getOrDefault("questionLatencyMs", "2")));
+        boolean indexed = Boolean.parseBoolean(options.getOrDefault("index", "false"));
+
+        List<String> questions = List.of("arithmetic", "integrals", "derivatives", "trigonometry", "geometry");
+        InMemoryExamRepository exams = new InMemoryExamRepository();
+        List<String> names = new ArrayList<>(catalog);
+        for (int i = 0; i < catalog; i++) {
+            String name = String.format("Exam-%07d", i);
+            exams.save(new Exam(null, name));
+            names.add(name);
+        }
+        // popularity unrelated to repository order
+        Collections.shuffle(names, new Random(profile.seed()));
+
+        IExamService service = new ExamServiceImpl(
+                new LatencyInjectingExamRepository(exams, LatencyModel.fixed(examLatency), LatencyModel.fixed(examLatency)),
+                new LatencyInjectingQuestionRepository(new FixedQuestionRepository(questions),
+                        LatencyModel.fixed(questionLatency), LatencyModel.fixed(questionLatency)),
+                indexed ? new ExamNameIndex() : null);
+
+        System.out.println("catalog=" + catalog + " indexed=" + indexed + " " + profile);
+        LoadReport report = new LoadGenerator(service, names, questions).run(profile);
+        System.out.print(report.format());
+    }
+}
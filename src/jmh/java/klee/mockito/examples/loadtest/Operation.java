@@ -0,0 +1,7 @@
+package klee.mockito.examples.loadtest;
+
+public enum Operation {
+    FIND_BY_NAME,
+    FIND_WITH_QUESTIONS,
+    SAVE
+}
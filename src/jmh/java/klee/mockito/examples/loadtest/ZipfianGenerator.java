@@ -0,0 +1,42 @@
+package klee.mockito.examples.loadtest;
+
+import java.util.Random;
+
+// Draws item ranks 0..n-1 where rank k is picked with probability proportional to 1/(k+1)^exponent.
+// Rank 0 is the most popular item. Uses a precomputed CDF and a binary search per draw,
+// 8 bytes per item, fine for catalogs of a few million exams.
+public class ZipfianGenerator {
+    private final double[] cdf;
+
+    public ZipfianGenerator(int items, double exponent) {
+        if (items <= 0)
+            throw new IllegalArgumentException("items must be positive");
+        cdf = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < items; i++)
+            cdf[i] /= sum;
+    }
+
+    public int next(Random random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cdf[middle] < u) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int items() {
+        return cdf.length;
+    }
+}
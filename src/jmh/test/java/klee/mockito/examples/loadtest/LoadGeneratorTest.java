@@ -0,0 +1,61 @@
+package klee.mockito.examples.loadtest;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.services.IExamService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadGeneratorTest {
+    @Mock
+    IExamService service;
+
+    @Test
+    void testMixAndErrors() {
+        lenient().when(service.findExamByName(anyString())).thenReturn(Optional.empty());
+        lenient().when(service.save(any(Exam.class))).thenThrow(new IllegalStateException("down"));
+
+        LoadProfile profile = LoadProfile.defaults()
+                .withMix(3, 0, 1)
+                .withConcurrency(4)
+                .withDuration(Duration.ZERO, Duration.ofMillis(300));
+        LoadReport report = new LoadGenerator(service, List.of("Math", "English"), List.of("geometry")).run(profile);
+
+        assertTrue(report.totalCalls() > 0);
+        assertEquals(0, report.latencies().get(Operation.FIND_WITH_QUESTIONS).getCount());
+        assertEquals(0, report.latencies().get(Operation.SAVE).getCount());
+        long finds = report.latencies().get(Operation.FIND_BY_NAME).getCount();
+        long saves = report.errors().get(Operation.SAVE);
+        assertEquals(0.75, finds / (double) (finds + saves), 0.05);
+        assertTrue(report.format().contains("FIND_BY_NAME"));
+        verify(service, never()).findExamByNameWithQuestions(anyString());
+    }
+
+    // at a target rate a stall counts for every call scheduled behind it
+    @Test
+    void testTargetRateMeasuresFromSchedule() {
+        when(service.findExamByName(anyString())).then(invocation -> {
+            Thread.sleep(50);
+            return Optional.empty();
+        });
+
+        LoadProfile profile = LoadProfile.defaults()
+                .withMix(1, 0, 0)
+                .withConcurrency(1)
+                .withDuration(Duration.ZERO, Duration.ofMillis(300))
+                .withTargetRate(100);
+        LoadReport report = new LoadGenerator(service, List.of("Math"), List.of()).run(profile);
+
+        // 10ms apart, 50ms each: the backlog keeps growing
+        assertTrue(report.latencies().get(Operation.FIND_BY_NAME).getMax() > Duration.ofMillis(150).toNanos());
+    }
+}
@@ -0,0 +1,35 @@
+package klee.mockito.examples.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfianGeneratorTest {
+
+    @Test
+    void testSkew() {
+        ZipfianGenerator generator = new ZipfianGenerator(1000, 1.0);
+        Random random = new Random(1);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100_000; i++)
+            counts[generator.next(random)]++;
+
+        // with exponent 1 rank 0 is drawn twice as often as rank 1, about 13% of all draws
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[10] && counts[10] > counts[500]);
+        assertEquals(2.0, counts[0] / (double) counts[1], 0.15);
+        assertEquals(0.134, counts[0] / 100_000.0, 0.01);
+    }
+
+    @Test
+    void testUniformWithExponentZero() {
+        ZipfianGenerator generator = new ZipfianGenerator(4, 0);
+        Random random = new Random(1);
+        int[] counts = new int[4];
+        for (int i = 0; i < 40_000; i++)
+            counts[generator.next(random)]++;
+        for (int count : counts)
+            assertEquals(10_000, count, 500);
+    }
+}
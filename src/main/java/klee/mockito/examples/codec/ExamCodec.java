@@ -0,0 +1,239 @@
+package klee.mockito.examples.codec;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.QuestionDictionary;
+import klee.mockito.examples.models.QuestionList;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary form of an Exam, written to and read from a ByteBuffer in place.
+// Layout: a flags byte (id present, name present), the id as a zigzag varint, the name as a
+// varint byte length and UTF-8, the question count as a varint and then one tag per question:
+// a new question is (length << 1) followed by its UTF-8 bytes, a repeated one is (ref << 1) | 1
+// where ref is its position in the codec's question table.
+// The table lives as long as the codec: one codec per stream (snapshot file, socket) writes every
+// distinct question once, a new codec per exam makes each exam decodable on its own.
+// Encoding and decoding must go through the same sequence of exams.
+public final class ExamCodec {
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 2;
+
+    private final QuestionDictionary dictionary;
+    private Map<String, Integer> encodeTable;
+    private int[] decodeTable = new int[0];
+    private int decodeCount;
+
+    public ExamCodec() {
+        this(QuestionDictionary.global());
+    }
+
+    // decoded questions are interned into dictionary
+    public ExamCodec(QuestionDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    // upper bound of what encode() writes for this exam, at most 3 bytes per UTF-16 char
+    public static int maxEncodedSize(Exam exam) {
+        int size = 1 + 10 + 5 + 5;
+        if (exam.getName() != null)
+            size += exam.getName().length() * 3;
+        for (String question : exam.getQuestions())
+            size += 5 + question.length() * 3;
+        return size;
+    }
+
+    // checked up front, a half written exam would leave the question table out of step
+    public void encode(Exam exam, ByteBuffer out) {
+        if (out.remaining() < maxEncodedSize(exam))
+            throw new BufferOverflowException();
+        int flags = (exam.getId() != null ? HAS_ID : 0) | (exam.getName() != null ? HAS_NAME : 0);
+        out.put((byte) flags);
+        if (exam.getId() != null)
+            putVarlong(out, zigzag(exam.getId()));
+        if (exam.getName() != null)
+            putString(out, exam.getName());
+
+        List<String> questions = exam.getQuestions();
+        putVarint(out, questions.size());
+        if (questions.isEmpty())
+            return;
+        if (encodeTable == null)
+            encodeTable = new HashMap<>();
+        for (String question : questions) {
+            Integer ref = encodeTable.putIfAbsent(question, encodeTable.size());
+            if (ref != null) {
+                putVarint(out, ref << 1 | 1);
+            } else {
+                putVarint(out, utf8Length(question) << 1);
+                putUtf8(out, question);
+            }
+        }
+    }
+
+    // truncated or corrupt input fails with IllegalStateException, whatever part of it is broken
+    public Exam decode(ByteBuffer in) {
+        try {
+            return decodeExam(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("encoded exam runs past the buffer", e);
+        }
+    }
+
+    private Exam decodeExam(ByteBuffer in) {
+        int flags = in.get();
+        if ((flags & ~(HAS_ID | HAS_NAME)) != 0)
+            throw new IllegalStateException("not an encoded exam, flags " + flags);
+        Long id = (flags & HAS_ID) != 0 ? unzigzag(getVarlong(in)) : null;
+        String name = (flags & HAS_NAME) != 0 ? getString(in, getVarint(in)) : null;
+        Exam exam = new Exam(id, name);
+
+        int count = getVarint(in);
+        if (count == 0)
+            return exam;
+        // every question takes at least one byte, a larger count is garbage and not worth allocating
+        if (count < 0 || count > in.remaining())
+            throw new IllegalStateException("question count " + count + " runs past the buffer");
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            int tag = getVarint(in);
+            if ((tag & 1) != 0) {
+                int ref = tag >>> 1;
+                if (ref >= decodeCount)
+                    throw new IllegalStateException("unknown question ref " + ref);
+                ids[i] = decodeTable[ref];
+            } else {
+                ids[i] = dictionary.intern(getString(in, tag >>> 1));
+                if (decodeCount == decodeTable.length)
+                    decodeTable = Arrays.copyOf(decodeTable, Math.max(16, decodeCount * 2));
+                decodeTable[decodeCount++] = ids[i];
+            }
+        }
+        exam.setQuestions(QuestionList.ofIds(dictionary, ids));
+        return exam;
+    }
+
+    // forgets the question table, the next exam starts a new stream
+    public void reset() {
+        encodeTable = null;
+        decodeCount = 0;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void putVarlong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    static long getVarlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("malformed varlong");
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        putVarint(out, utf8Length(value));
+        putUtf8(out, value);
+    }
+
+    // heap buffers are decoded from their array, anything else through one byte[]
+    private static String getString(ByteBuffer in, int length) {
+        if (length < 0 || length > in.remaining())
+            throw new IllegalStateException("string of " + length + " bytes runs past the buffer");
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    // same bytes as String.getBytes(UTF_8), a lone surrogate becomes '?'
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putUtf8(ByteBuffer out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | cp >> 18));
+                out.put((byte) (0x80 | cp >> 12 & 0x3F));
+                out.put((byte) (0x80 | cp >> 6 & 0x3F));
+                out.put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package klee.mockito.examples.concurrent;
+
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Collapses concurrent calls for the same key into one.
+// The first caller for a key runs the loader on its own thread, everyone arriving while it runs
+// waits for that result instead of calling the backend again, a failure is thrown to all of them.
+// Nothing is cached: once the call finished the next caller starts a new one.
+// Waiters give up after maxWait with a RepositoryUnavailableException, the call itself goes on.
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return await(key, running);
+        }
+
+        calls.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // loader runs, one per key and burst
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    // callers served by a call another thread made
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> running) {
+        try {
+            return running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RepositoryUnavailableException("gave up waiting for the in-flight call for " + key
+                    + " after " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package klee.mockito.examples.events;
+
+import klee.mockito.examples.models.ExamView;
+
+// One write as seen by subscribers. sequence is the position in the feed, gap-free and increasing.
+// For QUESTIONS_ADDED exam.questions() holds the questions that were written.
+public record ExamChangeEvent(long sequence, Type type, ExamView exam) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        QUESTIONS_ADDED
+    }
+}
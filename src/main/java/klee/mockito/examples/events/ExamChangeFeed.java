@@ -0,0 +1,218 @@
+package klee.mockito.examples.events;
+
+import klee.mockito.examples.models.ExamView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// In-process change feed on a lock-free ring buffer, in the style of the LMAX disruptor.
+// Publishers claim sequences with one getAndAdd, write the slots and then mark each slot as
+// published. Every subscription has its own thread and cursor: it takes the run of contiguous
+// published events after its cursor (at most maxBatch) and hands it to the listener as one batch,
+// so every subscriber sees every event exactly once and in sequence order.
+// The ring never overwrites an event the slowest subscriber hasn't seen, publishers wait instead.
+// Subscribers only get events published after subscribe() returned.
+public class ExamChangeFeed implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ExamChangeEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int maxBatch;
+    private final AtomicLong next = new AtomicLong();
+    private final ReentrantLock ordering = new ReentrantLock();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public ExamChangeFeed() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public ExamChangeFeed(int capacity, int maxBatch) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("maxBatch must be positive");
+        this.slots = new ExamChangeEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            published.set(i, -1);
+        this.mask = capacity - 1;
+        this.maxBatch = maxBatch;
+    }
+
+    public long publish(ExamChangeEvent.Type type, ExamView exam) {
+        return publishAll(List.of(new Change(type, exam)));
+    }
+
+    // the changes get consecutive sequences, returns the last one
+    public long publishAll(List<Change> changes) {
+        if (closed)
+            throw new IllegalStateException("change feed is closed");
+        if (changes.isEmpty())
+            return next.get() - 1;
+
+        long first = next.getAndAdd(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            long sequence = first + i;
+            awaitFreeSlot(sequence);
+            Change change = changes.get(i);
+            int slot = (int) (sequence & mask);
+            slots[slot] = new ExamChangeEvent(sequence, change.type(), change.exam());
+            // the volatile write publishes the slot write above
+            published.set(slot, sequence);
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.idle)
+                LockSupport.unpark(subscription.thread);
+        }
+        return first + changes.size() - 1;
+    }
+
+    // runs the write and publishes its changes as one step: for writers that go through here the
+    // feed order is the write order, two saves of the same exam can't be published swapped.
+    // Nothing is published when the write throws.
+    public <T> T publishAfter(Supplier<T> write, Function<T, List<Change>> changes) {
+        ordering.lock();
+        try {
+            T result = write.get();
+            List<Change> published = changes.apply(result);
+            if (!published.isEmpty())
+                publishAll(published);
+            return result;
+        } finally {
+            ordering.unlock();
+        }
+    }
+
+    public Subscription subscribe(IExamChangeListener listener) {
+        if (closed)
+            throw new IllegalStateException("change feed is closed");
+        Subscription subscription = new Subscription(listener, next.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    // last sequence handed out, -1 before the first publish
+    public long lastSequence() {
+        return next.get() - 1;
+    }
+
+    // delivers what was published and stops every subscription
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscription subscription : subscriptions)
+            subscription.close();
+    }
+
+    private void awaitFreeSlot(long sequence) {
+        while (sequence - slots.length >= minimumCursor()) {
+            if (subscriptions.isEmpty())
+                return;
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    private long minimumCursor() {
+        long minimum = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions)
+            minimum = Math.min(minimum, subscription.cursor.get());
+        return minimum;
+    }
+
+    public record Change(ExamChangeEvent.Type type, ExamView exam) {
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final IExamChangeListener listener;
+        private final AtomicLong cursor;
+        private final Thread thread;
+        private volatile boolean idle;
+        private volatile boolean stopped;
+        private volatile RuntimeException lastFailure;
+
+        private Subscription(IExamChangeListener listener, long start) {
+            this.listener = listener;
+            this.cursor = new AtomicLong(start);
+            this.thread = new Thread(this::run, "exam-change-subscriber");
+            this.thread.setDaemon(true);
+        }
+
+        // next sequence this subscriber will get
+        public long position() {
+            return cursor.get();
+        }
+
+        // a failing listener doesn't stop the subscription, the batch counts as delivered
+        public RuntimeException getLastFailure() {
+            return lastFailure;
+        }
+
+        // delivers the events already published, then stops
+        @Override
+        public void close() {
+            stopped = true;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            subscriptions.remove(this);
+        }
+
+        private void run() {
+            while (true) {
+                List<ExamChangeEvent> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    if (stopped && cursor.get() >= next.get())
+                        return;
+                    idle = true;
+                    // re-check after announcing, a publisher may have missed the flag
+                    if (!available() && !stopped)
+                        LockSupport.parkNanos(IDLE_NANOS);
+                    idle = false;
+                    continue;
+                }
+                try {
+                    listener.onEvents(batch);
+                } catch (RuntimeException e) {
+                    lastFailure = e;
+                }
+                cursor.set(batch.get(batch.size() - 1).sequence() + 1);
+            }
+        }
+
+        private boolean available() {
+            long position = cursor.get();
+            return published.get((int) (position & mask)) == position;
+        }
+
+        private List<ExamChangeEvent> nextBatch() {
+            long position = cursor.get();
+            List<ExamChangeEvent> batch = new ArrayList<>();
+            while (batch.size() < maxBatch && published.get((int) (position & mask)) == position) {
+                batch.add(slots[(int) (position & mask)]);
+                position++;
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package klee.mockito.examples.events;
+
+import java.util.List;
+
+public interface IExamChangeListener {
+    // called from the subscription's own thread, events in sequence order
+    void onEvents(List<ExamChangeEvent> events);
+}
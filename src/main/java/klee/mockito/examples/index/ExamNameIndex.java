@@ -0,0 +1,244 @@
+package klee.mockito.examples.index;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+// Substring index over exam names. Every name is split into its 1, 2 and 3 character grams
+// and each gram keeps a BitSet of the positions (repository order) of the names containing it.
+// A lookup intersects the posting lists of the query grams and verifies the candidates in order,
+// so the first bit that survives is the same "first match" the old findAll().stream() returned.
+// Next to it two tries over the lower-cased names (whole names and every word start) answer
+// ranked search: exact name, name prefix, word prefix, then names within a few edits.
+public class ExamNameIndex {
+    static final int GRAM = 3;
+
+    static final int EXACT = 0;
+    static final int PREFIX = 1;
+    static final int WORD_PREFIX = 2;
+    static final int FUZZY = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BitSet> postings = new HashMap<>();
+    private final List<Exam> exams = new ArrayList<>();
+    private final Map<Long, Integer> positionsById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final NameTrie names = new NameTrie();
+    private final NameTrie words = new NameTrie();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void load(List<Exam> all) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+            words.clear();
+            exams.clear();
+            positionsById.clear();
+            live.clear();
+            for (Exam exam : all)
+                put(exam);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Exam exam) {
+        lock.writeLock().lock();
+        try {
+            put(exam);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Exam> findFirst(String name) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(name);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Exam exam = exams.get(i);
+                if (exam.getName() != null && exam.getName().contains(name))
+                    return Optional.of(exam);
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // edit distance grows with the query: none below 3 chars, 1 up to 5, 2 after that
+    public List<Exam> search(String query, int limit) {
+        int length = query.strip().length();
+        return search(query, limit, length < 3 ? 0 : length < 6 ? 1 : 2);
+    }
+
+    public List<Exam> search(String query, int limit, int maxEdits) {
+        String key = normalize(query);
+        // a blank key is a prefix of every name, that's no search
+        if (limit <= 0 || key.isEmpty())
+            return List.of();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Match> matches = new LinkedHashMap<>();
+            prefixMatches(names, key, PREFIX, limit, matches);
+            prefixMatches(words, key, WORD_PREFIX, limit, matches);
+            for (int edits = 1; edits <= maxEdits && edits < key.length() && matches.size() < limit; edits++) {
+                fuzzyMatches(names, key, edits, limit, matches);
+                fuzzyMatches(words, key, edits, limit, matches);
+            }
+            return matches.values().stream()
+                    .sorted(Comparator.comparingInt(Match::rank)
+                            .thenComparingInt(Match::distance)
+                            .thenComparingInt(match -> exams.get(match.position()).getName().length())
+                            .thenComparingInt(Match::position))
+                    .limit(limit)
+                    .map(match -> exams.get(match.position()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // re-saving a known id keeps its original position, like an update in the backing store
+    private void put(Exam exam) {
+        Integer position = exam.getId() != null ? positionsById.get(exam.getId()) : null;
+        if (position != null) {
+            unindex(position, exams.get(position).getName());
+            exams.set(position, exam);
+        } else {
+            position = exams.size();
+            exams.add(exam);
+            if (exam.getId() != null)
+                positionsById.put(exam.getId(), position);
+        }
+        live.set(position);
+        index(position, exam.getName());
+    }
+
+    private void index(int position, String name) {
+        if (name == null)
+            return;
+        forEachGram(name, key -> postings.computeIfAbsent(key, k -> new BitSet()).set(position));
+        String key = normalize(name);
+        names.add(key, position);
+        forEachWordStart(key, start -> words.add(key.substring(start), position));
+    }
+
+    private void unindex(int position, String name) {
+        if (name == null)
+            return;
+        forEachGram(name, key -> {
+            BitSet bits = postings.get(key);
+            if (bits != null)
+                bits.clear(position);
+        });
+        String key = normalize(name);
+        names.remove(key, position);
+        forEachWordStart(key, start -> words.remove(key.substring(start), position));
+    }
+
+    // shortest keys first; the level that reaches the limit is finished so ties on length
+    // can still be broken by position
+    private void prefixMatches(NameTrie trie, String key, int rank, int limit, Map<Integer, Match> matches) {
+        if (matches.size() >= limit)
+            return;
+        NameTrie.Node node = trie.find(key);
+        if (node == null)
+            return;
+        int[] fullAt = {-1};
+        NameTrie.collect(node, (position, depth) -> {
+            if (fullAt[0] >= 0 && depth > fullAt[0])
+                return false;
+            int matchRank = rank == PREFIX && depth == 0 ? EXACT : rank;
+            matches.putIfAbsent(position, new Match(position, matchRank, 0));
+            if (matches.size() >= limit && fullAt[0] < 0)
+                fullAt[0] = depth;
+            return true;
+        });
+    }
+
+    private void fuzzyMatches(NameTrie trie, String key, int edits, int limit, Map<Integer, Match> matches) {
+        if (matches.size() >= limit)
+            return;
+        trie.fuzzyPrefix(key, edits, (position, distance) -> {
+            matches.putIfAbsent(position, new Match(position, FUZZY, distance));
+            return matches.size() < limit;
+        });
+    }
+
+    // starts of every word but the first, the first one is covered by the names trie
+    private static void forEachWordStart(String key, IntConsumer consumer) {
+        for (int i = 1; i < key.length(); i++)
+            if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i)))
+                consumer.accept(i);
+    }
+
+    private static String normalize(String s) {
+        return s.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private BitSet candidates(String name) {
+        if (name.isEmpty())
+            return (BitSet) live.clone();
+
+        int length = Math.min(GRAM, name.length());
+        BitSet result = null;
+        for (int i = 0; i + length <= name.length(); i++) {
+            BitSet bits = postings.get(key(name, i, length));
+            if (bits == null)
+                return new BitSet();
+            if (result == null) {
+                result = (BitSet) bits.clone();
+            } else {
+                result.and(bits);
+            }
+            if (result.isEmpty())
+                break;
+        }
+        return result;
+    }
+
+    private static void forEachGram(String name, LongConsumer consumer) {
+        for (int length = 1; length <= GRAM; length++)
+            for (int i = 0; i + length <= name.length(); i++)
+                consumer.accept(key(name, i, length));
+    }
+
+    // packs up to three UTF-16 chars plus the gram length into one long
+    static long key(String s, int from, int length) {
+        long key = length;
+        for (int i = 0; i < length; i++)
+            key = (key << 16) | s.charAt(from + i);
+        return key;
+    }
+
+    private record Match(int position, int rank, int distance) {
+    }
+}
@@ -0,0 +1,182 @@
+package klee.mockito.examples.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Lower-cased keys with int payloads, children in small sorted arrays to keep nodes compact.
+// Collection walks a subtree breadth first, so shorter keys come first, and stops as soon as the
+// visitor says it has enough: the cost of a lookup depends on the result limit, not on the
+// number of keys. Removing the last value of a key prunes the nodes it leaves empty, so renames
+// and deletes don't leave dead branches behind for the fuzzy walk.
+class NameTrie {
+    private Node root = new Node();
+
+    void clear() {
+        root = new Node();
+    }
+
+    void add(String key, int value) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++)
+            node = node.childOrCreate(key.charAt(i));
+        node.addValue(value);
+    }
+
+    void remove(String key, int value) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null)
+                return;
+        }
+        Node node = path[key.length()];
+        if (!node.removeValue(value))
+            return;
+        // walk back up while the nodes have neither values nor children
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--)
+            path[i - 1].removeChild(key.charAt(i - 1));
+    }
+
+    int nodeCount() {
+        int count = 0;
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            count++;
+            for (int i = 0; i < node.childCount; i++)
+                pending.add(node.children[i]);
+        }
+        return count;
+    }
+
+    Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.child(key.charAt(i));
+        return node;
+    }
+
+    // visitor gets (value, depth below the start node), returns false to stop
+    static void collect(Node start, DepthVisitor visitor) {
+        ArrayDeque<Node> level = new ArrayDeque<>();
+        level.add(start);
+        int depth = 0;
+        while (!level.isEmpty()) {
+            ArrayDeque<Node> next = new ArrayDeque<>();
+            for (Node node : level) {
+                for (int i = 0; i < node.valueCount; i++)
+                    if (!visitor.visit(node.values[i], depth))
+                        return;
+                for (int i = 0; i < node.childCount; i++)
+                    next.add(node.children[i]);
+            }
+            level = next;
+            depth++;
+        }
+    }
+
+    // Levenshtein walk: the first node on a path whose key prefix is within maxEdits of the query
+    // hands its whole subtree to the visitor with that distance.
+    void fuzzyPrefix(String query, int maxEdits, FuzzyVisitor visitor) {
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++)
+            row[i] = i;
+        fuzzy(root, query, row, maxEdits, visitor);
+    }
+
+    private boolean fuzzy(Node node, String query, int[] row, int maxEdits, FuzzyVisitor visitor) {
+        int distance = row[query.length()];
+        if (distance <= maxEdits) {
+            boolean[] more = {true};
+            collect(node, (value, depth) -> more[0] = visitor.visit(value, distance));
+            return more[0];
+        }
+        if (Arrays.stream(row).min().orElse(0) > maxEdits)
+            return true;
+
+        for (int c = 0; c < node.childCount; c++) {
+            char label = node.labels[c];
+            int[] nextRow = new int[row.length];
+            nextRow[0] = row[0] + 1;
+            for (int i = 1; i < row.length; i++) {
+                int substitution = row[i - 1] + (query.charAt(i - 1) == label ? 0 : 1);
+                nextRow[i] = Math.min(substitution, Math.min(row[i] + 1, nextRow[i - 1] + 1));
+            }
+            if (!fuzzy(node.children[c], query, nextRow, maxEdits, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    interface DepthVisitor {
+        boolean visit(int value, int depth);
+    }
+
+    interface FuzzyVisitor {
+        boolean visit(int value, int distance);
+    }
+
+    static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private int[] values = new int[0];
+        private int valueCount;
+
+        Node child(char label) {
+            int i = Arrays.binarySearch(labels, 0, childCount, label);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int i = Arrays.binarySearch(labels, 0, childCount, label);
+            if (i >= 0)
+                return children[i];
+            int at = -i - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, at, labels, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            Node node = new Node();
+            labels[at] = label;
+            children[at] = node;
+            childCount++;
+            return node;
+        }
+
+        void addValue(int value) {
+            if (valueCount == values.length)
+                values = Arrays.copyOf(values, Math.max(1, valueCount * 2));
+            values[valueCount++] = value;
+        }
+
+        boolean removeValue(int value) {
+            for (int i = 0; i < valueCount; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, valueCount - i - 1);
+                    valueCount--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void removeChild(char label) {
+            int i = Arrays.binarySearch(labels, 0, childCount, label);
+            if (i < 0)
+                return;
+            System.arraycopy(labels, i + 1, labels, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            children[--childCount] = null;
+        }
+
+        boolean isEmpty() {
+            return valueCount == 0 && childCount == 0;
+        }
+    }
+}
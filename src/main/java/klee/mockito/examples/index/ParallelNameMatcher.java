@@ -0,0 +1,100 @@
+package klee.mockito.examples.index;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fork-join scan for the first exam whose name contains the query, for catalogs without an index.
+// The list is split in halves down to chunkSize; every chunk is scanned in order and lowers the
+// shared best position on a match. Chunks that start after the best position found so far are
+// skipped, so the scan stops early and still returns the first match in repository order.
+// Catalogs smaller than parallelThreshold are scanned sequentially, forking doesn't pay off there.
+public class ParallelNameMatcher {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
+    public static final int DEFAULT_CHUNK_SIZE = 8_192;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int chunkSize;
+
+    public ParallelNameMatcher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelNameMatcher(ForkJoinPool pool, int parallelThreshold, int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize must be positive");
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    public Optional<Exam> findFirst(List<Exam> exams, String name) {
+        List<Exam> chunked = exams instanceof RandomAccess ? exams : new ArrayList<>(exams);
+        if (chunked.size() < parallelThreshold)
+            return Optional.ofNullable(scan(chunked, name, 0, chunked.size()));
+
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        pool.invoke(new Scan(chunked, name, 0, chunked.size(), best));
+        int position = best.get();
+        return position == Integer.MAX_VALUE ? Optional.empty() : Optional.of(chunked.get(position));
+    }
+
+    private static Exam scan(List<Exam> exams, String name, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Exam exam = exams.get(i);
+            if (matches(exam, name))
+                return exam;
+        }
+        return null;
+    }
+
+    private static boolean matches(Exam exam, String name) {
+        return exam.getName() != null && exam.getName().contains(name);
+    }
+
+    private class Scan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Exam> exams;
+        private final String name;
+        private final int from;
+        private final int to;
+        private final AtomicInteger best;
+
+        Scan(List<Exam> exams, String name, int from, int to, AtomicInteger best) {
+            this.exams = exams;
+            this.name = name;
+            this.from = from;
+            this.to = to;
+            this.best = best;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= best.get())
+                return;
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to && i < best.get(); i++) {
+                    if (matches(exams.get(i), name)) {
+                        best.accumulateAndGet(i, Math::min);
+                        return;
+                    }
+                }
+                return;
+            }
+            // the right half is forked, the left one runs here first since it wins on a match
+            int middle = (from + to) >>> 1;
+            Scan right = new Scan(exams, name, middle, to, best);
+            right.fork();
+            new Scan(exams, name, from, middle, best).compute();
+            right.join();
+        }
+    }
+}
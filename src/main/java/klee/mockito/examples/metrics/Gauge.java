@@ -0,0 +1,20 @@
+package klee.mockito.examples.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// up/down value, e.g. calls currently in flight
+public class Gauge {
+    private final AtomicLong value = new AtomicLong();
+
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    public void decrement() {
+        value.decrementAndGet();
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+}
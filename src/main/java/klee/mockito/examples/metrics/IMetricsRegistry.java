@@ -0,0 +1,8 @@
+package klee.mockito.examples.metrics;
+
+// Implementations return the same instance for the same name.
+public interface IMetricsRegistry {
+    Timer timer(String name);
+    Counter counter(String name);
+    Gauge gauge(String name);
+}
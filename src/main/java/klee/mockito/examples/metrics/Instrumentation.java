@@ -0,0 +1,50 @@
+package klee.mockito.examples.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Records one call of a named method: "<prefix>.<method>" timer plus ".calls", ".errors"
+// counters and an ".inFlight" gauge. The error rate of a method is errors / calls.
+public class Instrumentation {
+    private final IMetricsRegistry registry;
+    private final String prefix;
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    public Instrumentation(IMetricsRegistry registry, String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    public <T> T record(String method, Supplier<T> call) {
+        MethodMetrics metrics = methods.computeIfAbsent(method, this::metricsOf);
+        metrics.calls.increment();
+        metrics.inFlight.increment();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            metrics.errors.increment();
+            throw e;
+        } finally {
+            metrics.timer.record(System.nanoTime() - start);
+            metrics.inFlight.decrement();
+        }
+    }
+
+    public void run(String method, Runnable call) {
+        record(method, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private MethodMetrics metricsOf(String method) {
+        String name = prefix + "." + method;
+        return new MethodMetrics(registry.timer(name), registry.counter(name + ".calls"),
+                registry.counter(name + ".errors"), registry.gauge(name + ".inFlight"));
+    }
+
+    private record MethodMetrics(Timer timer, Counter calls, Counter errors, Gauge inFlight) {
+    }
+}
@@ -0,0 +1,79 @@
+package klee.mockito.examples.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free log-linear histogram in the spirit of HdrHistogram.
+// Values are bucketed by their power of two and then by the next SUB_BUCKET_BITS bits, so any
+// recorded value is reported within ~3% of its real value, from 1ns up to Long.MAX_VALUE.
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // percentile in [0, 100], the upper bound of the bucket holding that rank
+    public long valueAtPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(upperBoundOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> exponent) - SUB_BUCKETS / 2;
+        return exponent * (SUB_BUCKETS / 2) + SUB_BUCKETS / 2 + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exponent = (bucket - SUB_BUCKETS / 2) / (SUB_BUCKETS / 2);
+        int subBucket = (bucket - SUB_BUCKETS / 2) % (SUB_BUCKETS / 2);
+        long lower = (long) (subBucket + SUB_BUCKETS / 2) << exponent;
+        return lower + (1L << exponent) - 1;
+    }
+}
@@ -0,0 +1,32 @@
+package klee.mockito.examples.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class Timer {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    public double getMean(TimeUnit unit) {
+        return histogram.getMean() / unit.toNanos(1);
+    }
+
+    public long getMax(TimeUnit unit) {
+        return unit.convert(histogram.getMax(), TimeUnit.NANOSECONDS);
+    }
+
+    // e.g. percentile(99, MILLISECONDS) for the p99
+    public long percentile(double percentile, TimeUnit unit) {
+        return unit.convert(histogram.valueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -1,17 +1,16 @@
 package klee.mockito.examples.models;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Exam {
     private Long id;
     private String name;
-    private List<String> questions;
+    private QuestionList questions;
 
     public Exam(Long id, String name) {
         this.id = id;
         this.name = name;
-        this.questions = new ArrayList<>();
+        this.questions = QuestionList.EMPTY;
     }
 
     public Long getId() {
@@ -30,11 +29,12 @@ public class Exam {
         this.name = name;
     }
 
+    // read-only, questions are interned in the global QuestionDictionary
     public List<String> getQuestions() {
         return questions;
     }
 
     public void setQuestions(List<String> questions) {
-        this.questions = questions;
+        this.questions = questions == null ? QuestionList.EMPTY : QuestionList.of(questions);
     }
 }
@@ -0,0 +1,64 @@
+package klee.mockito.examples.models;
+
+import java.util.List;
+
+// Immutable read model of an exam, safe to share between threads and to cache as it is.
+// Questions are always a QuestionList, so converting from and to Exam only passes the same
+// list around instead of copying it.
+public record ExamView(Long id, String name, List<String> questions) {
+
+    public ExamView {
+        questions = questions == null ? QuestionList.EMPTY : QuestionList.of(questions);
+    }
+
+    public static ExamView from(Exam exam) {
+        return new ExamView(exam.getId(), exam.getName(), exam.getQuestions());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public ExamView withQuestions(List<String> questions) {
+        return new ExamView(id, name, questions);
+    }
+
+    // a new mutable Exam every call, changing it doesn't touch the view
+    public Exam toExam() {
+        Exam exam = new Exam(id, name);
+        exam.setQuestions(questions);
+        return exam;
+    }
+
+    public Builder toBuilder() {
+        return new Builder().id(id).name(name).questions(questions);
+    }
+
+    public static final class Builder {
+        private Long id;
+        private String name;
+        private List<String> questions = QuestionList.EMPTY;
+
+        private Builder() {
+        }
+
+        public Builder id(Long id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder questions(List<String> questions) {
+            this.questions = questions;
+            return this;
+        }
+
+        public ExamView build() {
+            return new ExamView(id, name, questions);
+        }
+    }
+}
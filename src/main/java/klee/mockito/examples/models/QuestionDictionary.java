@@ -0,0 +1,54 @@
+package klee.mockito.examples.models;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Interns question texts to dense int ids, every distinct text is stored once per dictionary.
+// Lookups by text and by id don't lock, only adding a new text does.
+// Nothing is ever removed: the global dictionary behind Exam.setQuestions() and the default
+// ExamCodec holds every distinct question text seen since startup. That's fine for a catalog's
+// fixed question bank; free-form texts (user input, generated questions) would grow it without
+// bound and shouldn't be stored through Exam as they are.
+public final class QuestionDictionary {
+    private static final QuestionDictionary GLOBAL = new QuestionDictionary();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] texts = new String[64];
+    private int size;
+
+    public static QuestionDictionary global() {
+        return GLOBAL;
+    }
+
+    public int intern(String text) {
+        Objects.requireNonNull(text, "question text must not be null");
+        Integer id = ids.get(text);
+        if (id != null)
+            return id;
+
+        synchronized (this) {
+            id = ids.get(text);
+            if (id != null)
+                return id;
+            String[] current = texts;
+            if (size == current.length)
+                current = texts = Arrays.copyOf(current, size * 2);
+            current[size] = text;
+            // the text is in place before its id becomes visible through the map
+            ids.put(text, size);
+            return size++;
+        }
+    }
+
+    public String text(int id) {
+        String[] current = texts;
+        if (id < 0 || id >= current.length || current[id] == null)
+            throw new IllegalArgumentException("unknown question id " + id);
+        return current[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,62 @@
+package klee.mockito.examples.models;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Read-only List<String> view over an int[] of dictionary ids.
+// An exam's questions cost 4 bytes each instead of a reference to its own String copy.
+public final class QuestionList extends AbstractList<String> implements RandomAccess {
+    public static final QuestionList EMPTY = new QuestionList(QuestionDictionary.global(), new int[0]);
+
+    private final QuestionDictionary dictionary;
+    private final int[] ids;
+
+    private QuestionList(QuestionDictionary dictionary, int[] ids) {
+        this.dictionary = dictionary;
+        this.ids = ids;
+    }
+
+    public static QuestionList of(List<String> questions) {
+        return of(QuestionDictionary.global(), questions);
+    }
+
+    // already compact lists of the same dictionary are returned as they are
+    public static QuestionList of(QuestionDictionary dictionary, List<String> questions) {
+        if (questions instanceof QuestionList list && list.dictionary == dictionary)
+            return list;
+        if (questions.isEmpty() && dictionary == QuestionDictionary.global())
+            return EMPTY;
+
+        // checked before anything is interned, a bad list leaves the dictionary alone
+        for (int i = 0; i < questions.size(); i++)
+            if (questions.get(i) == null)
+                throw new NullPointerException("question " + i + " must not be null");
+        int[] ids = new int[questions.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = dictionary.intern(questions.get(i));
+        return new QuestionList(dictionary, ids);
+    }
+
+    public static QuestionList ofIds(QuestionDictionary dictionary, int[] ids) {
+        return new QuestionList(dictionary, ids.clone());
+    }
+
+    public QuestionDictionary dictionary() {
+        return dictionary;
+    }
+
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public String get(int index) {
+        return dictionary.text(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
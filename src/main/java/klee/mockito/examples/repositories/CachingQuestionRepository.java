@@ -0,0 +1,179 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.QuestionList;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Read-through cache in front of a slow IQuestionRepository.
+// Entries are kept in access order (LRU) and expire after the TTL, measured on a monotonic
+// nanosecond source (System.nanoTime by default). saveMany() doesn't tell us
+// which exam the questions belong to, so any write invalidates the whole cache.
+// Misses are loaded outside the lock; a load that overlapped an invalidation is returned but not
+// cached, it may have read the data from before the write.
+public class CachingQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // bumped by every invalidation, guarded by entries
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingQuestionRepository(IQuestionRepository delegate, int maxEntries, Duration ttl) {
+        this(delegate, maxEntries, ttl, System::nanoTime);
+    }
+
+    public CachingQuestionRepository(IQuestionRepository delegate, int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be positive");
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        long loadedIn;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && !entry.isExpired(nanoTime.getAsLong())) {
+                hits.increment();
+                return entry.questions;
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+            loadedIn = generation;
+        }
+
+        misses.increment();
+        List<String> questions = delegate.findQuestionsByExamId(id);
+        synchronized (entries) {
+            if (loadedIn != generation)
+                return readOnly(questions);
+            return put(id, questions);
+        }
+    }
+
+    // hits are served from the cache, all misses go to the delegate as one batch
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        Map<Long, List<String>> result = new LinkedHashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long loadedIn;
+        synchronized (entries) {
+            long now = nanoTime.getAsLong();
+            for (Long id : ids) {
+                Entry entry = entries.get(id);
+                if (entry != null && !entry.isExpired(now)) {
+                    hits.increment();
+                    result.put(id, entry.questions);
+                } else {
+                    if (entry != null) {
+                        entries.remove(id);
+                        evictions.increment();
+                    }
+                    missing.add(id);
+                }
+            }
+            loadedIn = generation;
+        }
+        if (missing.isEmpty())
+            return result;
+
+        misses.add(missing.size());
+        Map<Long, List<String>> loaded = delegate.findQuestionsByExamIds(missing);
+        synchronized (entries) {
+            boolean stale = loadedIn != generation;
+            for (Long id : missing)
+                result.put(id, stale ? readOnly(loaded.get(id)) : put(id, loaded.get(id)));
+        }
+        return result;
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        delegate.saveMany(questions);
+        invalidateAll();
+    }
+
+    // e.g. warming the cache from a catalog snapshot, entries get the normal TTL
+    public void preload(Map<Long, List<String>> questions) {
+        synchronized (entries) {
+            questions.forEach(this::put);
+        }
+    }
+
+    public void invalidate(Long id) {
+        synchronized (entries) {
+            entries.remove(id);
+            generation++;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private List<String> put(Long id, List<String> questions) {
+        List<String> cached = readOnly(questions);
+        entries.put(id, new Entry(cached, nanoTime.getAsLong() + ttlNanos));
+        evictOverflow();
+        return cached;
+    }
+
+    private static List<String> readOnly(List<String> questions) {
+        return questions == null ? null : QuestionList.of(questions);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(List<String> questions, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+class ExamPageSpliterator extends Spliterators.AbstractSpliterator<Exam> {
+    private final IStreamingExamRepository repository;
+    private final int fetchSize;
+    private Iterator<Exam> page = Collections.emptyIterator();
+    private Long lastId;
+    private boolean lastPage;
+
+    ExamPageSpliterator(IStreamingExamRepository repository, int fetchSize) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        if (fetchSize <= 0)
+            throw new IllegalArgumentException("fetchSize must be positive");
+        this.repository = repository;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Exam> action) {
+        if (!page.hasNext()) {
+            if (lastPage)
+                return false;
+            List<Exam> next = repository.findPage(lastId, fetchSize);
+            lastPage = next.size() < fetchSize;
+            page = next.iterator();
+            if (!page.hasNext())
+                return false;
+        }
+        Exam exam = page.next();
+        lastId = exam.getId();
+        action.accept(exam);
+        return true;
+    }
+}
@@ -11,16 +11,15 @@ import java.util.concurrent.TimeUnit;
 public class ExamRepositoryImpl implements IExamRepository {
     @Override
     public Exam save(Exam exam) {
-        System.out.println("ExamRepositoryImpl.save");
         return new Exam(null, "Physics");
     }
 
     @Override
     public List<Exam> findAll() {
-        System.out.println("ExamRepositoryImpl.findAll");
         try {
             TimeUnit.SECONDS.sleep(3);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
 
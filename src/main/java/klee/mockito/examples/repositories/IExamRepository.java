@@ -2,9 +2,26 @@ package klee.mockito.examples.repositories;
 
 import klee.mockito.examples.models.Exam;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 public interface IExamRepository {
     Exam save(Exam exam);
     List<Exam> findAll();
+
+    // backends with a bulk insert should override this
+    default List<Exam> saveAll(List<Exam> exams) {
+        List<Exam> saved = new ArrayList<>(exams.size());
+        for (Exam exam : exams)
+            saved.add(save(exam));
+        return saved;
+    }
+
+    default Optional<Exam> findById(Long id) {
+        return findAll().stream()
+                .filter(e -> Objects.equals(e.getId(), id))
+                .findFirst();
+    }
 }
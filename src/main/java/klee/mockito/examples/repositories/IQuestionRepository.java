@@ -1,8 +1,19 @@
 package klee.mockito.examples.repositories;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface IQuestionRepository {
     List<String> findQuestionsByExamId(Long id);
     void saveMany(List<String> questions);
+
+    // backends that can resolve several ids in one round trip should override this
+    default Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        Map<Long, List<String>> questions = new LinkedHashMap<>();
+        for (Long id : ids)
+            questions.put(id, findQuestionsByExamId(id));
+        return questions;
+    }
 }
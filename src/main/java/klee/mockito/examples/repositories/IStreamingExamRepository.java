@@ -0,0 +1,33 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Repositories that can hand out the catalog page by page instead of materializing findAll().
+// Pages are keyset based: ids grow in repository order, a page holds the exams after afterId.
+public interface IStreamingExamRepository extends IExamRepository {
+    int DEFAULT_FETCH_SIZE = 1000;
+
+    // afterId null starts at the beginning, a page shorter than limit is the last one
+    List<Exam> findPage(Long afterId, int limit);
+
+    default Stream<Exam> streamAll() {
+        return streamAll(DEFAULT_FETCH_SIZE);
+    }
+
+    // lazy, at most one page of fetchSize exams is held at a time
+    default Stream<Exam> streamAll(int fetchSize) {
+        return StreamSupport.stream(new ExamPageSpliterator(this, fetchSize), false);
+    }
+
+    // first exam in id order whose name contains name, stops reading at the first match
+    default Optional<Exam> findFirstByName(String name) {
+        return streamAll()
+                .filter(e -> e.getName() != null && e.getName().contains(name))
+                .findFirst();
+    }
+}
@@ -0,0 +1,138 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread safe in-memory store.
+// Exams are kept in a ConcurrentSkipListMap ordered by id. Generated ids only grow, so exams saved
+// without an id come back in save order; an exam saved with its own id is placed by that id.
+// Writers take one lock and bump a version before and after every write (odd while one is
+// running). findById() goes straight to the map; findAll() returns an immutable snapshot that is
+// rebuilt after a write by copying the map without any lock, like a seqlock: the copy is only
+// used when the version was even and didn't move meanwhile, so every snapshot reflects a point in
+// time between two writes. Only a reader whose copies keep overlapping writes waits for the lock.
+public class InMemoryExamRepository implements IStreamingExamRepository {
+    private static final int OPTIMISTIC_READS = 4;
+
+    private final ConcurrentSkipListMap<Long, Exam> exams = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    public InMemoryExamRepository() {
+        this(0L);
+    }
+
+    // generated ids start after initialId
+    public InMemoryExamRepository(long initialId) {
+        this.sequence = new AtomicLong(initialId);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        writeLock.lock();
+        version.incrementAndGet();
+        try {
+            put(exam);
+        } finally {
+            version.incrementAndGet();
+            writeLock.unlock();
+        }
+        return exam;
+    }
+
+    @Override
+    public List<Exam> saveAll(List<Exam> batch) {
+        writeLock.lock();
+        version.incrementAndGet();
+        try {
+            for (Exam exam : batch)
+                put(exam);
+        } finally {
+            version.incrementAndGet();
+            writeLock.unlock();
+        }
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+            long before = version.get();
+            Snapshot current = snapshot;
+            if (current.version() == before)
+                return current.exams();
+            if ((before & 1) == 0) {
+                List<Exam> copy = List.copyOf(exams.values());
+                if (version.get() == before) {
+                    snapshot = new Snapshot(before, copy);
+                    return copy;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+        writeLock.lock();
+        try {
+            long current = version.get();
+            if (snapshot.version() != current)
+                snapshot = new Snapshot(current, List.copyOf(exams.values()));
+            return snapshot.exams();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // pages are read straight from the map, they see saves made while the stream is running
+    @Override
+    public List<Exam> findPage(Long afterId, int limit) {
+        List<Exam> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Exam exam : (afterId == null ? exams : exams.tailMap(afterId, false)).values()) {
+            if (page.size() == limit)
+                break;
+            page.add(exam);
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(exams.get(id));
+    }
+
+    void remove(Long id) {
+        writeLock.lock();
+        version.incrementAndGet();
+        try {
+            exams.remove(id);
+        } finally {
+            version.incrementAndGet();
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return exams.size();
+    }
+
+    // exams saved with an id (updates, restores) keep it, the sequence is moved past it
+    private void put(Exam exam) {
+        if (exam.getId() == null) {
+            exam.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(exam.getId(), Math::max);
+        }
+        exams.put(exam.getId(), exam);
+    }
+
+    private record Snapshot(long version, List<Exam> exams) {
+    }
+}
@@ -0,0 +1,38 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.metrics.IMetricsRegistry;
+import klee.mockito.examples.metrics.Instrumentation;
+import klee.mockito.examples.models.Exam;
+
+import java.util.List;
+import java.util.Optional;
+
+public class InstrumentedExamRepository implements IExamRepository {
+    private final IExamRepository delegate;
+    private final Instrumentation instrumentation;
+
+    public InstrumentedExamRepository(IExamRepository delegate, IMetricsRegistry registry) {
+        this.delegate = delegate;
+        this.instrumentation = new Instrumentation(registry, "examRepository");
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return instrumentation.record("save", () -> delegate.save(exam));
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        return instrumentation.record("findAll", delegate::findAll);
+    }
+
+    @Override
+    public List<Exam> saveAll(List<Exam> exams) {
+        return instrumentation.record("saveAll", () -> delegate.saveAll(exams));
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        return instrumentation.record("findById", () -> delegate.findById(id));
+    }
+}
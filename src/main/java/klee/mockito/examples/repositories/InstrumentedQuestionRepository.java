@@ -0,0 +1,33 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.metrics.IMetricsRegistry;
+import klee.mockito.examples.metrics.Instrumentation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class InstrumentedQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final Instrumentation instrumentation;
+
+    public InstrumentedQuestionRepository(IQuestionRepository delegate, IMetricsRegistry registry) {
+        this.delegate = delegate;
+        this.instrumentation = new Instrumentation(registry, "questionRepository");
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        return instrumentation.record("findQuestionsByExamId", () -> delegate.findQuestionsByExamId(id));
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        instrumentation.run("saveMany", () -> delegate.saveMany(questions));
+    }
+
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        return instrumentation.record("findQuestionsByExamIds", () -> delegate.findQuestionsByExamIds(ids));
+    }
+}
@@ -0,0 +1,347 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.codec.ExamCodec;
+import klee.mockito.examples.models.Exam;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// Durable IExamRepository on top of an append-only log in a memory-mapped file.
+// Every save appends one record [length][crc32][payload]; reads are served by an in-memory
+// InMemoryExamRepository that is rebuilt by scanning the log on startup. A torn record at the end
+// of the log (crash in the middle of a save) fails its checksum and is cut off.
+// Superseded records (re-saved ids) are garbage; once they are more than compactionRatio of the
+// log a background thread rewrites the live exams into a new file. Saves keep going during the
+// rewrite, the records they append meanwhile are copied over right before the files are swapped.
+public class MappedExamRepository implements IStreamingExamRepository, AutoCloseable {
+    static final int MAGIC = 0x45584C47; // "EXLG"
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final byte TYPE_EXAM = 2;
+
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path path;
+    private final boolean syncOnWrite;
+    private final double compactionRatio;
+    private final InMemoryExamRepository index = new InMemoryExamRepository();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Integer> recordSizes = new HashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "exam-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int writePosition;
+    private long liveBytes;
+    private CompletableFuture<Void> compaction;
+    private boolean closed;
+    private volatile RuntimeException lastCompactionFailure;
+
+    public MappedExamRepository(Path path) {
+        this(path, false, 0.5);
+    }
+
+    // syncOnWrite forces every record to disk before save returns
+    public MappedExamRepository(Path path, boolean syncOnWrite, double compactionRatio) {
+        this.path = path;
+        this.syncOnWrite = syncOnWrite;
+        this.compactionRatio = compactionRatio;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized Exam save(Exam exam) {
+        checkOpen();
+        append(exam);
+        if (syncOnWrite)
+            log.force();
+        maybeCompact();
+        return exam;
+    }
+
+    @Override
+    public synchronized List<Exam> saveAll(List<Exam> exams) {
+        checkOpen();
+        for (Exam exam : exams)
+            append(exam);
+        if (syncOnWrite)
+            log.force();
+        maybeCompact();
+        return new ArrayList<>(exams);
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        return index.findAll();
+    }
+
+    @Override
+    public List<Exam> findPage(Long afterId, int limit) {
+        return index.findPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        return index.findById(id);
+    }
+
+    public synchronized long logSize() {
+        return writePosition;
+    }
+
+    // background compactions have nobody waiting for them, their failure is kept here;
+    // cleared by the next compaction that succeeds
+    public RuntimeException getLastCompactionFailure() {
+        return lastCompactionFailure;
+    }
+
+    // rewrites the log now and waits for it
+    public void compact() {
+        CompletableFuture<Void> running;
+        synchronized (this) {
+            running = startCompaction();
+        }
+        running.join();
+    }
+
+    // a running compaction is interrupted and waited for, it never swaps files after close()
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+        compactor.shutdownNow();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        synchronized (this) {
+            try {
+                log.force();
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+        if (size == 0) {
+            log.putInt(0, MAGIC);
+            log.putInt(4, 1);
+            writePosition = HEADER_SIZE;
+            return;
+        }
+        if (log.getInt(0) != MAGIC)
+            throw new IllegalStateException(path + " is not an exam log");
+        writePosition = replay();
+    }
+
+    // returns the end of the last intact record
+    private int replay() {
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= log.capacity()) {
+            int length = log.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > log.capacity())
+                break;
+            ByteBuffer payload = log.slice(position + RECORD_HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != log.getInt(position + 4))
+                break;
+
+            Exam exam = decode(payload);
+            track(exam.getId(), RECORD_HEADER_SIZE + length);
+            sequence.accumulateAndGet(exam.getId(), Math::max);
+            index.save(exam);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        // wipe a torn tail so the next append starts from clean zeros
+        for (int i = position; i < Math.min(position + RECORD_HEADER_SIZE, log.capacity()); i++)
+            log.put(i, (byte) 0);
+        return position;
+    }
+
+    private void append(Exam exam) {
+        if (exam.getId() == null) {
+            exam.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(exam.getId(), Math::max);
+        }
+        int maxPayload = maxPayloadSize(exam);
+        ensureCapacity((long) writePosition + RECORD_HEADER_SIZE + maxPayload);
+
+        // payload and checksum first, the length last: a record is only visible once complete
+        int length = encode(exam, log.slice(writePosition + RECORD_HEADER_SIZE, maxPayload));
+        CRC32 crc = new CRC32();
+        crc.update(log.slice(writePosition + RECORD_HEADER_SIZE, length));
+        log.putInt(writePosition + 4, (int) crc.getValue());
+        log.putInt(writePosition, length);
+        int size = RECORD_HEADER_SIZE + length;
+        writePosition += size;
+
+        track(exam.getId(), size);
+        index.save(exam);
+    }
+
+    private void track(Long id, int size) {
+        Integer previous = recordSizes.put(id, size);
+        liveBytes += size - (previous == null ? 0 : previous);
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= log.capacity())
+            return;
+        if (required > Integer.MAX_VALUE)
+            throw new IllegalStateException("exam log is limited to 2GB, compact it");
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(required, (long) log.capacity() * 2));
+        try {
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void maybeCompact() {
+        long garbage = writePosition - HEADER_SIZE - liveBytes;
+        if (writePosition >= MIN_COMPACTION_BYTES && garbage > compactionRatio * writePosition)
+            startCompaction();
+    }
+
+    private CompletableFuture<Void> startCompaction() {
+        checkOpen();
+        if (compaction == null || compaction.isDone()) {
+            compaction = CompletableFuture.runAsync(this::rewrite, compactor)
+                    .whenComplete((v, e) -> lastCompactionFailure = e == null ? null : unwrap(e));
+        }
+        return compaction;
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("exam log is closed");
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+    }
+
+    private void rewrite() {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            int copiedUpTo;
+            List<Exam> live;
+            synchronized (this) {
+                copiedUpTo = writePosition;
+                live = index.findAll();
+            }
+
+            // the snapshot is written without holding the lock, saves go on in the old log
+            long size = HEADER_SIZE;
+            for (Exam exam : live)
+                size += RECORD_HEADER_SIZE + maxPayloadSize(exam);
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("live exams don't fit in a 2GB log");
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                buffer.putInt(MAGIC).putInt(1);
+                for (Exam exam : live) {
+                    int start = buffer.position();
+                    buffer.position(start + RECORD_HEADER_SIZE);
+                    int length = encode(exam, buffer);
+                    CRC32 crc = new CRC32();
+                    crc.update(buffer.slice(start + RECORD_HEADER_SIZE, length));
+                    buffer.putInt(start, length).putInt(start + 4, (int) crc.getValue());
+                }
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+
+                synchronized (this) {
+                    // records appended while the snapshot was written
+                    ByteBuffer tail = log.slice(copiedUpTo, writePosition - copiedUpTo);
+                    while (tail.hasRemaining())
+                        out.write(tail);
+                    out.force(true);
+                    swap(compacted, (int) out.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // left over when the rewrite failed or was given up
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void swap(Path compacted, int size) throws IOException {
+        if (closed)
+            throw new IllegalStateException("exam log was closed during compaction");
+        log.force();
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+        // the live records and their sizes are the same as before, only the garbage is gone
+        writePosition = size;
+    }
+
+    static int maxPayloadSize(Exam exam) {
+        return 1 + ExamCodec.maxEncodedSize(exam);
+    }
+
+    // every record has its own codec so it decodes without the records before it
+    static int encode(Exam exam, ByteBuffer out) {
+        int start = out.position();
+        out.put(TYPE_EXAM);
+        new ExamCodec().encode(exam, out);
+        return out.position() - start;
+    }
+
+    static Exam decode(ByteBuffer payload) {
+        byte type = payload.get();
+        if (type != TYPE_EXAM)
+            throw new IllegalStateException("unknown record type " + type);
+        return new ExamCodec().decode(payload);
+    }
+}
@@ -0,0 +1,125 @@
+package klee.mockito.examples.repositories;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// DataLoader style coalescer for question lookups.
+// Single id requests are collected until the window elapses or maxBatchSize ids are pending,
+// then the whole batch goes to findQuestionsByExamIds() in one call. Requests for an id that is
+// already pending share the same future.
+// close() dispatches what is pending and refuses new loads; a batch the dispatcher rejects fails
+// all of its futures instead of leaving them hanging.
+public class QuestionBatchLoader implements AutoCloseable {
+    private final IQuestionRepository repository;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService timer;
+    private final Executor dispatcher;
+    private final ExecutorService ownedDispatcher;
+
+    private Map<Long, CompletableFuture<List<String>>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledDispatch;
+    private boolean closed;
+
+    public QuestionBatchLoader(IQuestionRepository repository, int maxBatchSize, Duration window) {
+        this(repository, maxBatchSize, window, null);
+    }
+
+    // batches are dispatched on the given executor, or on virtual threads when it is null
+    public QuestionBatchLoader(IQuestionRepository repository, int maxBatchSize, Duration window, Executor dispatcher) {
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        this.repository = repository;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "question-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ownedDispatcher = dispatcher == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.dispatcher = dispatcher == null ? ownedDispatcher : dispatcher;
+    }
+
+    public CompletableFuture<List<String>> load(Long id) {
+        CompletableFuture<List<String>> future;
+        Map<Long, CompletableFuture<List<String>>> full = null;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("question batch loader is closed");
+            future = pending.get(id);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(id, future);
+            }
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (scheduledDispatch == null) {
+                scheduledDispatch = timer.schedule(this::dispatchPending, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null)
+            dispatch(full);
+        return future;
+    }
+
+    // dispatches whatever is pending without waiting for the window
+    public void flush() {
+        dispatchPending();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdown();
+        if (ownedDispatcher != null)
+            ownedDispatcher.shutdown();
+    }
+
+    private void dispatchPending() {
+        Map<Long, CompletableFuture<List<String>>> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty())
+            dispatch(batch);
+    }
+
+    private Map<Long, CompletableFuture<List<String>>> takePending() {
+        Map<Long, CompletableFuture<List<String>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledDispatch != null) {
+            scheduledDispatch.cancel(false);
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<List<String>>> batch) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    Map<Long, List<String>> questions = repository.findQuestionsByExamIds(batch.keySet());
+                    batch.forEach((id, future) -> future.complete(questions.get(id)));
+                } catch (Throwable e) {
+                    batch.values().forEach(future -> future.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -1,29 +1,51 @@
 package klee.mockito.examples.repositories;
 
+import klee.mockito.examples.models.QuestionList;
+
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class QuestionRepositoryImpl implements IQuestionRepository{
+    // one shared compact list instead of a new list per call
+    private static final List<String> QUESTIONS = QuestionList.of(Arrays.asList(
+            "arithmetic",
+            "integrals",
+            "derivatives",
+            "trigonometry",
+            "geometry"
+    ));
+
     @Override
     public List<String> findQuestionsByExamId(Long id) {
-        System.out.println("QuestionRepositoryImpl.findQuestionsByExamId");
         try {
             TimeUnit.SECONDS.sleep(2);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return QUESTIONS;
+    }
+
+    // one round trip for the whole batch
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        try {
+            TimeUnit.SECONDS.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
-        return Arrays.asList(
-                "arithmetic",
-                "integrals",
-                "derivatives",
-                "trigonometry",
-                "geometry"
-        );
+        Map<Long, List<String>> questions = new LinkedHashMap<>();
+        for (Long id : ids)
+            questions.put(id, QUESTIONS);
+        return questions;
     }
 
     @Override
     public void saveMany(List<String> questions) {
-        System.out.println("QuestionRepositoryImpl.saveMany");
     }
 }
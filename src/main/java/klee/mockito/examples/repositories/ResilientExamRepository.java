@@ -0,0 +1,52 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+import klee.mockito.examples.resilience.ResilientCaller;
+
+import java.util.List;
+import java.util.Optional;
+
+// Deadlines, hedging and circuit breaking around an IExamRepository, policies are looked up as
+// "examRepository.<method>". When findAll is unavailable the last good result is served if the
+// policy allows stale data. Writes are never hedged.
+public class ResilientExamRepository implements IExamRepository {
+    private final IExamRepository delegate;
+    private final ResilientCaller caller;
+    private volatile List<Exam> lastFindAll;
+
+    public ResilientExamRepository(IExamRepository delegate, ResilientCaller caller) {
+        this.delegate = delegate;
+        this.caller = caller;
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return caller.call("examRepository.save", false, () -> delegate.save(exam));
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        String method = "examRepository.findAll";
+        try {
+            List<Exam> exams = caller.call(method, true, delegate::findAll);
+            lastFindAll = exams;
+            return exams;
+        } catch (RepositoryUnavailableException e) {
+            List<Exam> stale = lastFindAll;
+            if (stale != null && caller.policyOf(method).serveStale())
+                return stale;
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Exam> saveAll(List<Exam> exams) {
+        return caller.call("examRepository.saveAll", false, () -> delegate.saveAll(exams));
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        return caller.call("examRepository.findById", true, () -> delegate.findById(id));
+    }
+}
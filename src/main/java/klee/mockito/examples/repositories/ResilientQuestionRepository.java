@@ -0,0 +1,62 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+import klee.mockito.examples.resilience.ResilientCaller;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Deadlines, hedging and circuit breaking around an IQuestionRepository, policies are looked up
+// as "questionRepository.<method>". The last good questions of up to maxStaleEntries exams are
+// kept to answer findQuestionsByExamId while the backend is unavailable.
+public class ResilientQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final ResilientCaller caller;
+    private final Map<Long, List<String>> stale;
+
+    public ResilientQuestionRepository(IQuestionRepository delegate, ResilientCaller caller, int maxStaleEntries) {
+        this.delegate = delegate;
+        this.caller = caller;
+        this.stale = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<String>> eldest) {
+                return size() > maxStaleEntries;
+            }
+        };
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        String method = "questionRepository.findQuestionsByExamId";
+        try {
+            List<String> questions = caller.call(method, true, () -> delegate.findQuestionsByExamId(id));
+            synchronized (stale) {
+                stale.put(id, questions);
+            }
+            return questions;
+        } catch (RepositoryUnavailableException e) {
+            if (caller.policyOf(method).serveStale()) {
+                synchronized (stale) {
+                    if (stale.containsKey(id))
+                        return stale.get(id);
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        caller.call("questionRepository.saveMany", false, () -> {
+            delegate.saveMany(questions);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        return caller.call("questionRepository.findQuestionsByExamIds", true, () -> delegate.findQuestionsByExamIds(ids));
+    }
+}
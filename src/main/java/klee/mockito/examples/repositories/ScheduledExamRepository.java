@@ -0,0 +1,80 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.scheduling.PriorityClass;
+import klee.mockito.examples.scheduling.PriorityScope;
+import klee.mockito.examples.scheduling.RepositoryScheduler;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Runs every call through a RepositoryScheduler. Reads are INTERACTIVE and writes are BATCH
+// unless the calling thread opened a PriorityScope, so imports through save() queue behind
+// user lookups by default. Work fanned out to other threads keeps the scope only where it is
+// captured on the way, see PriorityScope.
+// of() keeps streaming: a streaming delegate gets a Streaming wrapper that schedules its pages too.
+public class ScheduledExamRepository implements IExamRepository {
+    private final IExamRepository delegate;
+    private final RepositoryScheduler scheduler;
+
+    public ScheduledExamRepository(IExamRepository delegate, RepositoryScheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    public static IExamRepository of(IExamRepository delegate, RepositoryScheduler scheduler) {
+        if (delegate instanceof IStreamingExamRepository streaming)
+            return new Streaming(streaming, scheduler);
+        return new ScheduledExamRepository(delegate, scheduler);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return write(() -> delegate.save(exam));
+    }
+
+    @Override
+    public List<Exam> findAll() {
+        return read(delegate::findAll);
+    }
+
+    @Override
+    public List<Exam> saveAll(List<Exam> exams) {
+        return write(() -> delegate.saveAll(exams));
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        return read(() -> delegate.findById(id));
+    }
+
+    protected <T> T read(Supplier<T> call) {
+        return scheduler.call(PriorityScope.currentOr(PriorityClass.INTERACTIVE), call);
+    }
+
+    protected <T> T write(Supplier<T> call) {
+        return scheduler.call(PriorityScope.currentOr(PriorityClass.BATCH), call);
+    }
+
+    // every page is a read of its own, a slow consumer doesn't hold a slot between pages.
+    // findFirstByName is one call so the delegate keeps its own scan (e.g. the sharded one).
+    public static class Streaming extends ScheduledExamRepository implements IStreamingExamRepository {
+        private final IStreamingExamRepository streaming;
+
+        public Streaming(IStreamingExamRepository delegate, RepositoryScheduler scheduler) {
+            super(delegate, scheduler);
+            this.streaming = delegate;
+        }
+
+        @Override
+        public List<Exam> findPage(Long afterId, int limit) {
+            return read(() -> streaming.findPage(afterId, limit));
+        }
+
+        @Override
+        public Optional<Exam> findFirstByName(String name) {
+            return read(() -> streaming.findFirstByName(name));
+        }
+    }
+}
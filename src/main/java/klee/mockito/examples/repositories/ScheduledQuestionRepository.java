@@ -0,0 +1,36 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.scheduling.PriorityClass;
+import klee.mockito.examples.scheduling.PriorityScope;
+import klee.mockito.examples.scheduling.RepositoryScheduler;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Same as ScheduledExamRepository for questions: reads INTERACTIVE, saveMany BATCH by default.
+public class ScheduledQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final RepositoryScheduler scheduler;
+
+    public ScheduledQuestionRepository(IQuestionRepository delegate, RepositoryScheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        return scheduler.call(PriorityScope.currentOr(PriorityClass.INTERACTIVE), () -> delegate.findQuestionsByExamId(id));
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        scheduler.run(PriorityScope.currentOr(PriorityClass.BATCH), () -> delegate.saveMany(questions));
+    }
+
+    // one slot for the whole batch, the delegate may resolve it in one round trip
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        return scheduler.call(PriorityScope.currentOr(PriorityClass.INTERACTIVE), () -> delegate.findQuestionsByExamIds(ids));
+    }
+}
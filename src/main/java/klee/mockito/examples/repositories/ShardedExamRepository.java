@@ -0,0 +1,298 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Exams partitioned over N InMemoryExamRepository shards, each with its own write lock, so saves
+// to different shards don't wait for each other.
+// The shard of an exam comes from the hash of its shard key: the id by default, a tenant for
+// multi-tenant catalogs so one institution stays in one shard. Ids come from one global sequence,
+// so the id order over all shards is still the save order, and findAll()/findPage() merge the
+// shards in id order. Name lookups scan all shards in parallel; each shard stops at its first
+// match or as soon as it passes the smallest id matched so far, the smallest id wins.
+// rebalance() moves every exam to a new set of shards and blocks all other calls meanwhile.
+public class ShardedExamRepository implements IStreamingExamRepository, AutoCloseable {
+    private static final int SCAN_PAGE_SIZE = 1024;
+
+    private final Function<Exam, ?> shardKey;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Integer> locations = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebalanceLock = new ReentrantReadWriteLock();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger writing = new AtomicInteger();
+    private volatile InMemoryExamRepository[] shards;
+    private volatile Snapshot snapshot;
+
+    public ShardedExamRepository(int shardCount) {
+        this(shardCount, Exam::getId, null);
+    }
+
+    // a null executor means one virtual thread per shard scan, shut down by close()
+    public ShardedExamRepository(int shardCount, Function<Exam, ?> shardKey, ExecutorService executor) {
+        this.shardKey = shardKey;
+        this.ownsExecutor = executor == null;
+        this.executor = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : executor;
+        this.shards = newShards(shardCount);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        rebalanceLock.readLock().lock();
+        beginWrite();
+        try {
+            assignId(exam);
+            InMemoryExamRepository[] current = shards;
+            int shard = shardOf(exam, current.length);
+            Integer previous = locations.put(exam.getId(), shard);
+            current[shard].save(exam);
+            // the tenant changed, the old copy goes away
+            if (previous != null && previous != shard)
+                current[previous].remove(exam.getId());
+            return exam;
+        } finally {
+            endWrite();
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    // grouped by shard, every shard writes its part with one saveAll() in parallel
+    @Override
+    public List<Exam> saveAll(List<Exam> exams) {
+        rebalanceLock.readLock().lock();
+        beginWrite();
+        try {
+            InMemoryExamRepository[] current = shards;
+            List<List<Exam>> groups = new ArrayList<>(current.length);
+            for (int i = 0; i < current.length; i++)
+                groups.add(new ArrayList<>());
+            for (Exam exam : exams) {
+                assignId(exam);
+                int shard = shardOf(exam, current.length);
+                Integer previous = locations.put(exam.getId(), shard);
+                if (previous != null && previous != shard)
+                    current[previous].remove(exam.getId());
+                groups.get(shard).add(exam);
+            }
+
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (int i = 0; i < current.length; i++) {
+                List<Exam> group = groups.get(i);
+                if (!group.isEmpty()) {
+                    InMemoryExamRepository shard = current[i];
+                    futures.add(CompletableFuture.runAsync(() -> shard.saveAll(group), executor));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            return new ArrayList<>(exams);
+        } finally {
+            endWrite();
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    // the merged list is cached until the next write. Writers bump the version before and after
+    // they touch the shards, like InMemoryExamRepository, but several can run at once so a parity
+    // bit isn't enough: a merge is only cached when no write was running when it started and the
+    // version didn't move meanwhile. Otherwise it's returned without being cached.
+    @Override
+    public List<Exam> findAll() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get())
+            return current.exams();
+
+        rebalanceLock.readLock().lock();
+        try {
+            long before = version.get();
+            boolean quiet = writing.get() == 0;
+            List<List<Exam>> parts = new ArrayList<>();
+            for (InMemoryExamRepository shard : shards)
+                parts.add(shard.findAll());
+            List<Exam> merged = List.copyOf(merge(parts, Integer.MAX_VALUE));
+            if (quiet && version.get() == before)
+                snapshot = new Snapshot(before, merged);
+            return merged;
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Exam> findPage(Long afterId, int limit) {
+        rebalanceLock.readLock().lock();
+        try {
+            List<List<Exam>> parts = new ArrayList<>();
+            for (InMemoryExamRepository shard : shards)
+                parts.add(shard.findPage(afterId, limit));
+            return merge(parts, limit);
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Exam> findById(Long id) {
+        if (id == null)
+            return Optional.empty();
+        rebalanceLock.readLock().lock();
+        try {
+            Integer shard = locations.get(id);
+            return shard == null ? Optional.empty() : shards[shard].findById(id);
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Exam> findFirstByName(String name) {
+        rebalanceLock.readLock().lock();
+        try {
+            InMemoryExamRepository[] current = shards;
+            AtomicLong best = new AtomicLong(Long.MAX_VALUE);
+            List<CompletableFuture<Exam>> scans = new ArrayList<>(current.length);
+            for (InMemoryExamRepository shard : current)
+                scans.add(CompletableFuture.supplyAsync(() -> scan(shard, name, best), executor));
+            return scans.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .min(Comparator.comparing(Exam::getId));
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public int[] shardSizes() {
+        return Arrays.stream(shards).mapToInt(InMemoryExamRepository::size).toArray();
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    public void rebalance(int shardCount) {
+        rebalanceLock.writeLock().lock();
+        try {
+            InMemoryExamRepository[] moved = newShards(shardCount);
+            List<List<Exam>> groups = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++)
+                groups.add(new ArrayList<>());
+            for (InMemoryExamRepository shard : shards) {
+                for (Exam exam : shard.findAll()) {
+                    int target = shardOf(exam, shardCount);
+                    groups.get(target).add(exam);
+                    locations.put(exam.getId(), target);
+                }
+            }
+            for (int i = 0; i < shardCount; i++)
+                moved[i].saveAll(groups.get(i));
+            shards = moved;
+            version.incrementAndGet();
+        } finally {
+            rebalanceLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor)
+            executor.shutdown();
+    }
+
+    // pages through the shard in id order, gives up once past an earlier match of another shard
+    private static Exam scan(InMemoryExamRepository shard, String name, AtomicLong best) {
+        Long afterId = null;
+        while (true) {
+            List<Exam> page = shard.findPage(afterId, SCAN_PAGE_SIZE);
+            for (Exam exam : page) {
+                if (exam.getId() >= best.get())
+                    return null;
+                if (exam.getName() != null && exam.getName().contains(name)) {
+                    best.accumulateAndGet(exam.getId(), Math::min);
+                    return exam;
+                }
+            }
+            if (page.size() < SCAN_PAGE_SIZE)
+                return null;
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private void beginWrite() {
+        writing.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    private void endWrite() {
+        version.incrementAndGet();
+        writing.decrementAndGet();
+    }
+
+    private void assignId(Exam exam) {
+        if (exam.getId() == null) {
+            exam.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(exam.getId(), Math::max);
+        }
+    }
+
+    private int shardOf(Exam exam, int shardCount) {
+        Object key = shardKey.apply(exam);
+        if (key == null)
+            key = exam.getId();
+        // spread the hash, sequential ids would otherwise fill the shards round robin in blocks
+        int hash = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    // k-way merge of id ordered lists
+    private static List<Exam> merge(List<List<Exam>> parts, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator.comparing((int[] head) -> parts.get(head[0]).get(head[1]).getId()));
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty())
+                heads.add(new int[]{i, 0});
+        }
+        List<Exam> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Exam> part = parts.get(head[0]);
+            merged.add(part.get(head[1]));
+            if (++head[1] < part.size())
+                heads.add(head);
+        }
+        return merged;
+    }
+
+    private static InMemoryExamRepository[] newShards(int shardCount) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("shardCount must be positive");
+        InMemoryExamRepository[] shards = new InMemoryExamRepository[shardCount];
+        for (int i = 0; i < shardCount; i++)
+            shards[i] = new InMemoryExamRepository();
+        return shards;
+    }
+
+    private record Snapshot(long version, List<Exam> exams) {
+    }
+}
@@ -0,0 +1,38 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.concurrent.SingleFlight;
+import klee.mockito.examples.models.QuestionList;
+
+import java.time.Duration;
+import java.util.List;
+
+// Concurrent findQuestionsByExamId calls for the same exam share one delegate call, see SingleFlight.
+// The shared list is a read-only QuestionList. Bulk reads and writes go straight to the delegate.
+public class SingleFlightQuestionRepository implements IQuestionRepository {
+    private final IQuestionRepository delegate;
+    private final SingleFlight<Long, List<String>> byExamId;
+
+    public SingleFlightQuestionRepository(IQuestionRepository delegate, Duration maxWait) {
+        this.delegate = delegate;
+        this.byExamId = new SingleFlight<>(maxWait);
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        if (id == null)
+            return delegate.findQuestionsByExamId(null);
+        return byExamId.execute(id, () -> {
+            List<String> questions = delegate.findQuestionsByExamId(id);
+            return questions == null ? null : QuestionList.of(questions);
+        });
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        delegate.saveMany(questions);
+    }
+
+    public long getSharedCount() {
+        return byExamId.getSharedCount();
+    }
+}
@@ -0,0 +1,250 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.QuestionList;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind buffer for saveMany().
+// A write is acknowledged as soon as it is in the buffer, a background flusher merges buffered
+// writes into one saveMany() once maxBatchQuestions questions are waiting or flushInterval has
+// passed since the oldest one. saveMany() blocks while maxPendingWrites writes are buffered.
+// Reads flush first, so a reader always sees its own writes. A failed flush puts the batch back
+// at the head of the buffer and is retried after flushInterval.
+public class WriteBehindQuestionRepository implements IQuestionRepository, AutoCloseable {
+    private final IQuestionRepository delegate;
+    private final int maxPendingWrites;
+    private final int maxBatchQuestions;
+    private final long flushIntervalNanos;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition work = lock.newCondition();
+    private final Condition progress = lock.newCondition();
+    private final ArrayDeque<List<String>> buffer = new ArrayDeque<>();
+    private int bufferedQuestions;
+    private long enqueued;
+    private long flushed;
+    private long failures;
+    private RuntimeException lastFailure;
+    private boolean flushRequested;
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+
+    public WriteBehindQuestionRepository(IQuestionRepository delegate, int maxPendingWrites,
+                                         int maxBatchQuestions, Duration flushInterval) {
+        if (maxPendingWrites <= 0 || maxBatchQuestions <= 0)
+            throw new IllegalArgumentException("maxPendingWrites and maxBatchQuestions must be positive");
+        this.delegate = delegate;
+        this.maxPendingWrites = maxPendingWrites;
+        this.maxBatchQuestions = maxBatchQuestions;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.flusher = new Thread(this::runFlusher, "question-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void saveMany(List<String> questions) {
+        List<String> copy = QuestionList.of(questions);
+        lock.lock();
+        try {
+            while (buffer.size() >= maxPendingWrites && !closed)
+                notFull.await();
+            if (closed)
+                throw new IllegalStateException("write-behind buffer is closed");
+            buffer.addLast(copy);
+            bufferedQuestions += copy.size();
+            enqueued++;
+            if (bufferedQuestions >= maxBatchQuestions)
+                work.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> findQuestionsByExamId(Long id) {
+        flushIfPending();
+        return delegate.findQuestionsByExamId(id);
+    }
+
+    @Override
+    public Map<Long, List<String>> findQuestionsByExamIds(Collection<Long> ids) {
+        flushIfPending();
+        return delegate.findQuestionsByExamIds(ids);
+    }
+
+    // blocks until every write acknowledged before the call reached the delegate
+    public void flush() {
+        lock.lock();
+        try {
+            long target = enqueued;
+            long failuresBefore = failures;
+            while (flushed < target) {
+                if (failures != failuresBefore)
+                    throw new RuntimeException("write-behind flush failed", lastFailure);
+                if (closed && !flusher.isAlive())
+                    throw new IllegalStateException("write-behind buffer is closed");
+                flushRequested = true;
+                work.signal();
+                progress.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingWrites() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    // drains the buffer, then stops the flusher
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;
+                work.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flushIfPending() {
+        lock.lock();
+        boolean pending;
+        try {
+            pending = flushed < enqueued;
+        } finally {
+            lock.unlock();
+        }
+        if (pending)
+            flush();
+    }
+
+    private void runFlusher() {
+        while (true) {
+            List<List<String>> batch = nextBatch();
+            if (batch == null)
+                return;
+            List<String> merged = new ArrayList<>();
+            for (List<String> write : batch)
+                merged.addAll(write);
+            try {
+                delegate.saveMany(merged);
+                batches.increment();
+                completed(batch.size());
+            } catch (RuntimeException e) {
+                if (!failed(batch, e))
+                    return;
+            }
+        }
+    }
+
+    // waits for the size or time threshold, null once closed and drained
+    private List<List<String>> nextBatch() {
+        lock.lock();
+        try {
+            while (buffer.isEmpty()) {
+                if (closed)
+                    return null;
+                work.await();
+            }
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            while (bufferedQuestions < maxBatchQuestions && !flushRequested && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    break;
+                work.awaitNanos(remaining);
+            }
+
+            List<List<String>> batch = new ArrayList<>();
+            int questions = 0;
+            while (!buffer.isEmpty() && (batch.isEmpty() || questions + buffer.peekFirst().size() <= maxBatchQuestions)) {
+                List<String> write = buffer.pollFirst();
+                questions += write.size();
+                batch.add(write);
+            }
+            bufferedQuestions -= questions;
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void completed(int writes) {
+        lock.lock();
+        try {
+            flushed += writes;
+            if (flushed == enqueued)
+                flushRequested = false;
+            progress.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // false once closed, the flusher gives up instead of retrying forever
+    private boolean failed(List<List<String>> batch, RuntimeException e) {
+        lock.lock();
+        try {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                buffer.addFirst(batch.get(i));
+                bufferedQuestions += batch.get(i).size();
+            }
+            failures++;
+            lastFailure = e;
+            flushRequested = false;
+            progress.signalAll();
+            if (closed)
+                return false;
+            // back off before retrying, close() still wakes us up
+            work.awaitNanos(flushIntervalNanos);
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package klee.mockito.examples.resilience;
+
+import java.time.Duration;
+
+// Per method tuning for ResilientCaller.
+// hedgePercentile > 0 hedges after that percentile of the method's observed latency, and
+// falls back to hedgeDelay until enough calls were seen. A null hedgeDelay and a 0 percentile
+// disable hedging. The breaker opens when at least breakerMinimumCalls of the last
+// breakerWindow calls were made and breakerFailureRate of them failed.
+public record CallPolicy(Duration timeout,
+                         Duration hedgeDelay,
+                         double hedgePercentile,
+                         int breakerWindow,
+                         int breakerMinimumCalls,
+                         double breakerFailureRate,
+                         Duration breakerOpenDuration,
+                         boolean serveStale) {
+
+    public static CallPolicy defaults() {
+        return new CallPolicy(Duration.ofSeconds(5), null, 0, 20, 10, 0.5, Duration.ofSeconds(30), true);
+    }
+
+    public CallPolicy withTimeout(Duration timeout) {
+        return new CallPolicy(timeout, hedgeDelay, hedgePercentile, breakerWindow, breakerMinimumCalls,
+                breakerFailureRate, breakerOpenDuration, serveStale);
+    }
+
+    public CallPolicy withHedging(Duration hedgeDelay, double hedgePercentile) {
+        return new CallPolicy(timeout, hedgeDelay, hedgePercentile, breakerWindow, breakerMinimumCalls,
+                breakerFailureRate, breakerOpenDuration, serveStale);
+    }
+
+    public CallPolicy withoutHedging() {
+        return withHedging(null, 0);
+    }
+
+    public CallPolicy withBreaker(int window, int minimumCalls, double failureRate, Duration openDuration) {
+        return new CallPolicy(timeout, hedgeDelay, hedgePercentile, window, minimumCalls,
+                failureRate, openDuration, serveStale);
+    }
+
+    public CallPolicy withServeStale(boolean serveStale) {
+        return new CallPolicy(timeout, hedgeDelay, hedgePercentile, breakerWindow, breakerMinimumCalls,
+                breakerFailureRate, breakerOpenDuration, serveStale);
+    }
+}
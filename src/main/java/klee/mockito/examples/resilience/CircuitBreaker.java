@@ -0,0 +1,106 @@
+package klee.mockito.examples.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Count based circuit breaker.
+// CLOSED records the outcome of the last `window` calls and opens once the failure rate is
+// reached. OPEN rejects calls until openDuration has passed, then HALF_OPEN lets a single probe
+// through: a success closes the breaker, a failure opens it again.
+// The open duration is measured on a monotonic nanosecond source (System.nanoTime by default).
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int window, int minimumCalls, double failureRate, Duration openDuration, LongSupplier nanoTime) {
+        this.outcomes = new boolean[window];
+        this.minimumCalls = minimumCalls;
+        this.failureRate = failureRate;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight)
+                    yield false;
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && failures >= failureRate * recorded)
+            open();
+    }
+
+    // the call ended without an outcome (interrupted, rejected): nothing is recorded, but a half
+    // open probe is given back so the next call can probe instead
+    public synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN)
+            probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next])
+                failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed)
+            failures++;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = nanoTime.getAsLong();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,10 @@
+package klee.mockito.examples.resilience;
+
+// thrown when a call timed out or its circuit breaker is open
+public class RepositoryUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RepositoryUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,169 @@
+package klee.mockito.examples.resilience;
+
+import klee.mockito.examples.metrics.LatencyHistogram;
+import klee.mockito.examples.scheduling.PriorityScope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Runs repository calls under a CallPolicy: a deadline, an optional hedged duplicate request and
+// a circuit breaker, all tracked per method name. The backend call runs on the executor so the
+// caller stops waiting at the deadline, attempts still running then are cancelled with an
+// interrupt. Only idempotent calls are hedged.
+public class ResilientCaller implements AutoCloseable {
+    // observed latencies are only trusted for the hedge delay after this many calls
+    static final int MIN_SAMPLES_FOR_PERCENTILE = 20;
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final CallPolicy defaultPolicy;
+    private final Map<String, CallPolicy> policies;
+    private final LongSupplier nanoTime;
+    private final Map<String, MethodState> states = new ConcurrentHashMap<>();
+
+    public ResilientCaller(CallPolicy defaultPolicy, Map<String, CallPolicy> policies) {
+        this(defaultPolicy, policies, Executors.newVirtualThreadPerTaskExecutor(), true, System::nanoTime);
+    }
+
+    public ResilientCaller(CallPolicy defaultPolicy, Map<String, CallPolicy> policies, ExecutorService executor, LongSupplier nanoTime) {
+        this(defaultPolicy, policies, executor, false, nanoTime);
+    }
+
+    private ResilientCaller(CallPolicy defaultPolicy, Map<String, CallPolicy> policies, ExecutorService executor,
+                            boolean ownsExecutor, LongSupplier nanoTime) {
+        this.defaultPolicy = defaultPolicy;
+        this.policies = Map.copyOf(policies);
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.nanoTime = nanoTime;
+    }
+
+    public <T> T call(String method, boolean idempotent, Supplier<T> call) {
+        MethodState state = states.computeIfAbsent(method, this::stateOf);
+        if (!state.breaker.tryAcquire())
+            throw new RepositoryUnavailableException(method + ": circuit breaker is open");
+
+        long start = System.nanoTime();
+        long deadline = start + state.policy.timeout().toNanos();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>(2);
+        // calls that end without an outcome still have to give back a half open probe
+        boolean reported = false;
+        try {
+            attempts.add(submit(call, result, outstanding));
+            long hedgeAfter = idempotent ? state.hedgeDelayNanos() : -1;
+            if (hedgeAfter >= 0 && start + hedgeAfter < deadline) {
+                try {
+                    T value = result.get(hedgeAfter, TimeUnit.NANOSECONDS);
+                    reported = true;
+                    return succeeded(state, start, value);
+                } catch (TimeoutException e) {
+                    state.hedges.increment();
+                    attempts.add(submit(call, result, outstanding));
+                }
+            }
+            T value = result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            reported = true;
+            return succeeded(state, start, value);
+        } catch (TimeoutException e) {
+            reported = true;
+            state.breaker.onFailure();
+            throw new RepositoryUnavailableException(method + " timed out after " + state.policy.timeout().toMillis() + "ms");
+        } catch (ExecutionException e) {
+            reported = true;
+            state.breaker.onFailure();
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryUnavailableException(method + " was interrupted");
+        } catch (RejectedExecutionException e) {
+            throw new RepositoryUnavailableException(method + ": executor rejected the call");
+        } finally {
+            if (!reported)
+                state.breaker.onAbandoned();
+            for (Future<?> attempt : attempts)
+                attempt.cancel(true);
+        }
+    }
+
+    public CallPolicy policyOf(String method) {
+        return policies.getOrDefault(method, defaultPolicy);
+    }
+
+    public CircuitBreaker.State breakerState(String method) {
+        return states.computeIfAbsent(method, this::stateOf).breaker.getState();
+    }
+
+    public long hedgeCount(String method) {
+        return states.computeIfAbsent(method, this::stateOf).hedges.sum();
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor)
+            executor.shutdownNow();
+    }
+
+    private <T> T succeeded(MethodState state, long start, T value) {
+        state.latencies.record(System.nanoTime() - start);
+        state.breaker.onSuccess();
+        return value;
+    }
+
+    // the first successful attempt wins, the result only fails when every attempt failed;
+    // attempts run under the caller's PriorityScope
+    private <T> Future<?> submit(Supplier<T> call, CompletableFuture<T> result, AtomicInteger outstanding) {
+        outstanding.incrementAndGet();
+        return executor.submit(PriorityScope.propagate(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                if (outstanding.decrementAndGet() == 0)
+                    result.completeExceptionally(e);
+            }
+        }));
+    }
+
+    private MethodState stateOf(String method) {
+        CallPolicy policy = policyOf(method);
+        return new MethodState(policy, new CircuitBreaker(policy.breakerWindow(), policy.breakerMinimumCalls(),
+                policy.breakerFailureRate(), policy.breakerOpenDuration(), nanoTime));
+    }
+
+    private static final class MethodState {
+        final CallPolicy policy;
+        final CircuitBreaker breaker;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final LongAdder hedges = new LongAdder();
+
+        MethodState(CallPolicy policy, CircuitBreaker breaker) {
+            this.policy = policy;
+            this.breaker = breaker;
+        }
+
+        long hedgeDelayNanos() {
+            if (policy.hedgePercentile() > 0 && latencies.getCount() >= MIN_SAMPLES_FOR_PERCENTILE)
+                return latencies.valueAtPercentile(policy.hedgePercentile());
+            return policy.hedgeDelay() == null ? -1 : policy.hedgeDelay().toNanos();
+        }
+    }
+}
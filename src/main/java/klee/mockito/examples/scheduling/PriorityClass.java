@@ -0,0 +1,7 @@
+package klee.mockito.examples.scheduling;
+
+// INTERACTIVE calls are dispatched before any queued BATCH call
+public enum PriorityClass {
+    INTERACTIVE,
+    BATCH
+}
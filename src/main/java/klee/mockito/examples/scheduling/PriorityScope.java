@@ -0,0 +1,69 @@
+package klee.mockito.examples.scheduling;
+
+import java.util.concurrent.Executor;
+
+// Priority class for the scheduled repository calls made on the calling thread, e.g. an import
+// job wraps its reads in a BATCH scope. Scopes nest, close() brings back the enclosing one.
+// Without a scope each scheduled repository falls back to its own default.
+// The scope is a ThreadLocal, pool and virtual threads don't inherit it: code that hands work to
+// another thread captures it with propagate() or capturing(). Work that merges several callers
+// (QuestionBatchLoader batches) runs without a scope.
+public final class PriorityScope implements AutoCloseable {
+    private static final ThreadLocal<PriorityClass> CURRENT = new ThreadLocal<>();
+
+    private final PriorityClass previous;
+
+    private PriorityScope(PriorityClass previous) {
+        this.previous = previous;
+    }
+
+    public static PriorityScope open(PriorityClass priority) {
+        PriorityScope scope = new PriorityScope(CURRENT.get());
+        CURRENT.set(priority);
+        return scope;
+    }
+
+    public static PriorityClass currentOr(PriorityClass fallback) {
+        PriorityClass current = CURRENT.get();
+        return current == null ? fallback : current;
+    }
+
+    // the task runs under the scope that is current now, on whatever thread runs it
+    public static Runnable propagate(Runnable task) {
+        PriorityClass captured = CURRENT.get();
+        if (captured == null)
+            return task;
+        return () -> {
+            PriorityScope scope = open(captured);
+            try {
+                task.run();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    // every task run through the returned executor gets the scope that is current now
+    public static Executor capturing(Executor executor) {
+        PriorityClass captured = CURRENT.get();
+        if (captured == null)
+            return executor;
+        return task -> executor.execute(() -> {
+            PriorityScope scope = open(captured);
+            try {
+                task.run();
+            } finally {
+                scope.close();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
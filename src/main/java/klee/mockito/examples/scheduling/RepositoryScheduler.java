@@ -0,0 +1,178 @@
+package klee.mockito.examples.scheduling;
+
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Admission control in front of a slow backend.
+// Calls run on the caller's thread once they got a slot. Waiting calls queue per priority class
+// in arrival order; a free slot goes to the oldest INTERACTIVE call whose bucket has a token,
+// otherwise to the oldest BATCH call, as long as batch calls leave the reserved slots alone.
+// An interactive call that is out of tokens doesn't block the batch queue behind it.
+// There is no aging: a steady stream of interactive calls starves batch calls up to the
+// interactive rate limit, which is the knob for that.
+public class RepositoryScheduler {
+    private final SchedulerPolicy policy;
+    private final TokenBucket[] buckets;
+    private final List<ArrayDeque<Ticket>> queues;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private int running;
+    private int runningBatch;
+    private long rejected;
+
+    public RepositoryScheduler(SchedulerPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    // nanoTime drives the token buckets only, queue waits always use System.nanoTime
+    public RepositoryScheduler(SchedulerPolicy policy, LongSupplier nanoTime) {
+        this.policy = policy;
+        this.buckets = new TokenBucket[]{
+                new TokenBucket(policy.interactiveRate(), policy.interactiveBurst(), nanoTime),
+                new TokenBucket(policy.batchRate(), policy.batchBurst(), nanoTime)
+        };
+        this.queues = List.of(new ArrayDeque<>(), new ArrayDeque<>());
+    }
+
+    public <T> T call(PriorityClass priority, Supplier<T> call) {
+        acquire(priority);
+        try {
+            return call.get();
+        } finally {
+            release(priority);
+        }
+    }
+
+    public void run(PriorityClass priority, Runnable call) {
+        call(priority, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueLength(PriorityClass priority) {
+        lock.lock();
+        try {
+            return queues.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // calls that gave up after maxQueueWait
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(PriorityClass priority) {
+        Ticket ticket = new Ticket();
+        ArrayDeque<Ticket> queue = queues.get(priority.ordinal());
+        long deadline = policy.maxQueueWait() == null ? Long.MAX_VALUE : System.nanoTime() + policy.maxQueueWait().toNanos();
+        lock.lock();
+        try {
+            queue.add(ticket);
+            while (true) {
+                long tokenWait = dispatch();
+                if (ticket.granted)
+                    return;
+                long left = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (left <= 0) {
+                    queue.remove(ticket);
+                    rejected++;
+                    // the tickets behind this one may be able to go now
+                    dispatch();
+                    throw new RepositoryUnavailableException(priority + " call waited longer than " + policy.maxQueueWait() + " for a slot");
+                }
+                // woken by a release, or after the time the blocked head needs for its next token
+                changed.awaitNanos(Math.min(left, tokenWait));
+            }
+        } catch (InterruptedException e) {
+            if (ticket.granted) {
+                releaseSlot(priority);
+            } else {
+                queue.remove(ticket);
+            }
+            Thread.currentThread().interrupt();
+            throw new RepositoryUnavailableException(priority + " call was interrupted while waiting for a slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(PriorityClass priority) {
+        lock.lock();
+        try {
+            releaseSlot(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot(PriorityClass priority) {
+        running--;
+        if (priority == PriorityClass.BATCH)
+            runningBatch--;
+        dispatch();
+        changed.signalAll();
+    }
+
+    // hands out free slots, returns how long until the token a blocked head waits for is there
+    private long dispatch() {
+        long tokenWait = Long.MAX_VALUE;
+        boolean granted = false;
+        while (running < policy.maxConcurrency()) {
+            Ticket next = null;
+            ArrayDeque<Ticket> interactive = queues.get(PriorityClass.INTERACTIVE.ordinal());
+            if (!interactive.isEmpty()) {
+                if (buckets[PriorityClass.INTERACTIVE.ordinal()].tryAcquire()) {
+                    next = interactive.poll();
+                } else {
+                    tokenWait = Math.min(tokenWait, buckets[PriorityClass.INTERACTIVE.ordinal()].nanosUntilAvailable());
+                }
+            }
+            ArrayDeque<Ticket> batch = queues.get(PriorityClass.BATCH.ordinal());
+            if (next == null && !batch.isEmpty() && runningBatch < policy.maxConcurrency() - policy.reservedInteractive()) {
+                if (buckets[PriorityClass.BATCH.ordinal()].tryAcquire()) {
+                    next = batch.poll();
+                    runningBatch++;
+                } else {
+                    tokenWait = Math.min(tokenWait, buckets[PriorityClass.BATCH.ordinal()].nanosUntilAvailable());
+                }
+            }
+            if (next == null)
+                break;
+            next.granted = true;
+            running++;
+            granted = true;
+        }
+        if (granted)
+            changed.signalAll();
+        // a token that shows up right away still needs a wake up, never wait 0
+        return Math.max(tokenWait, 1);
+    }
+
+    private static final class Ticket {
+        private boolean granted;
+    }
+}
@@ -0,0 +1,47 @@
+package klee.mockito.examples.scheduling;
+
+import java.time.Duration;
+
+// Limits for RepositoryScheduler.
+// At most maxConcurrency calls run at once, reservedInteractive of those slots are never given to
+// BATCH calls so an interactive call finds a free slot even while an import saturates the rest.
+// Rates are calls per second with the given burst, 0 means no limit. A call that can't get a slot
+// within maxQueueWait fails, a null maxQueueWait waits as long as it takes.
+public record SchedulerPolicy(int maxConcurrency,
+                              int reservedInteractive,
+                              double interactiveRate,
+                              int interactiveBurst,
+                              double batchRate,
+                              int batchBurst,
+                              Duration maxQueueWait) {
+
+    public SchedulerPolicy {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        if (reservedInteractive < 0 || reservedInteractive >= maxConcurrency)
+            throw new IllegalArgumentException("reservedInteractive must leave at least one slot for batch calls");
+    }
+
+    public static SchedulerPolicy defaults() {
+        return new SchedulerPolicy(16, 4, 0, 0, 0, 0, Duration.ofSeconds(5));
+    }
+
+    public SchedulerPolicy withConcurrency(int maxConcurrency, int reservedInteractive) {
+        return new SchedulerPolicy(maxConcurrency, reservedInteractive, interactiveRate, interactiveBurst,
+                batchRate, batchBurst, maxQueueWait);
+    }
+
+    public SchedulerPolicy withRate(PriorityClass priority, double rate, int burst) {
+        return switch (priority) {
+            case INTERACTIVE -> new SchedulerPolicy(maxConcurrency, reservedInteractive, rate, burst,
+                    batchRate, batchBurst, maxQueueWait);
+            case BATCH -> new SchedulerPolicy(maxConcurrency, reservedInteractive, interactiveRate, interactiveBurst,
+                    rate, burst, maxQueueWait);
+        };
+    }
+
+    public SchedulerPolicy withMaxQueueWait(Duration maxQueueWait) {
+        return new SchedulerPolicy(maxConcurrency, reservedInteractive, interactiveRate, interactiveBurst,
+                batchRate, batchBurst, maxQueueWait);
+    }
+}
@@ -0,0 +1,65 @@
+package klee.mockito.examples.scheduling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Classic token bucket: refills at permitsPerSecond up to burst tokens, every call takes one.
+// A rate of 0 or less means no limit. Time comes from a monotonic nanosecond source
+// (System.nanoTime by default), a wall clock stepped back by NTP would stop the refill.
+public class TokenBucket {
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        if (permitsPerSecond > 0 && burst <= 0)
+            throw new IllegalArgumentException("burst must be positive");
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        // starts full, so the first burst goes through right away
+        this.tokens = burst;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    public boolean isUnlimited() {
+        return permitsPerNano <= 0;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (isUnlimited())
+            return true;
+        refill();
+        if (tokens < 1)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    // 0 when a token is available now
+    public synchronized long nanosUntilAvailable() {
+        if (isUnlimited())
+            return 0;
+        refill();
+        if (tokens >= 1)
+            return 0;
+        return (long) Math.ceil((1 - tokens) / permitsPerNano);
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        // nanoTime values are only comparable by their difference
+        long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+import klee.mockito.examples.scheduling.PriorityScope;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs the blocking IExamService calls off the caller's thread.
+// By default every call gets its own virtual thread, so thousands of concurrent lookups
+// only park cheap virtual threads while the repositories block. The caller's PriorityScope
+// goes along with the call.
+public class AsyncExamServiceImpl implements IAsyncExamService, AutoCloseable {
+    private final IExamService examService;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    public AsyncExamServiceImpl(IExamService examService) {
+        this.examService = examService;
+        this.ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.executor = ownedExecutor;
+    }
+
+    // the executor stays owned by the caller and is not shut down by close()
+    public AsyncExamServiceImpl(IExamService examService, Executor executor) {
+        this.examService = examService;
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Exam>> findExamByName(String name) {
+        return CompletableFuture.supplyAsync(() -> examService.findExamByName(name), PriorityScope.capturing(executor));
+    }
+
+    @Override
+    public CompletableFuture<Exam> findExamByNameWithQuestions(String name) {
+        return CompletableFuture.supplyAsync(() -> examService.findExamByNameWithQuestions(name), PriorityScope.capturing(executor));
+    }
+
+    @Override
+    public CompletableFuture<Optional<ExamView>> findExamViewByName(String name) {
+        return CompletableFuture.supplyAsync(() -> examService.findExamViewByName(name), PriorityScope.capturing(executor));
+    }
+
+    @Override
+    public CompletableFuture<List<Exam>> searchExams(String query, int limit) {
+        return CompletableFuture.supplyAsync(() -> examService.searchExams(query, limit), PriorityScope.capturing(executor));
+    }
+
+    @Override
+    public CompletableFuture<Exam> save(Exam exam) {
+        return CompletableFuture.supplyAsync(() -> examService.save(exam), PriorityScope.capturing(executor));
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null)
+            ownedExecutor.shutdown();
+    }
+}
@@ -0,0 +1,26 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+
+import java.util.List;
+
+public record BulkSaveReport(List<BatchResult> batches) {
+    public int savedCount() {
+        return batches.stream().mapToInt(b -> b.saved().size()).sum();
+    }
+
+    public int failedCount() {
+        return batches.stream().filter(b -> !b.isSuccess()).mapToInt(BatchResult::size).sum();
+    }
+
+    public boolean isSuccess() {
+        return batches.stream().allMatch(BatchResult::isSuccess);
+    }
+
+    // failure is null when the batch was written completely
+    public record BatchResult(int batch, int size, List<Exam> saved, Throwable failure) {
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.IExamRepository;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.scheduling.PriorityScope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Bulk import path for exams.
+// Exams are grouped into batches, each batch writes its questions with one saveMany() and then
+// its exams with one saveAll(). Question writes of the next batches overlap with the exam
+// write of the current one, exam writes stay in input order so ids keep the import order.
+// At most maxInFlightBatches batches are buffered, the input is only pulled when one finishes.
+public class ExamBulkSaver {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
+    private final IExamRepository examRepository;
+    private final IQuestionRepository questionRepository;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final Executor executor;
+
+    public ExamBulkSaver(IExamRepository examRepository, IQuestionRepository questionRepository) {
+        this(examRepository, questionRepository, DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT_BATCHES, null);
+    }
+
+    // with a null executor every saveAll() runs its writes on its own virtual threads
+    public ExamBulkSaver(IExamRepository examRepository, IQuestionRepository questionRepository,
+                         int batchSize, int maxInFlightBatches, Executor executor) {
+        if (batchSize <= 0 || maxInFlightBatches <= 0)
+            throw new IllegalArgumentException("batchSize and maxInFlightBatches must be positive");
+        this.examRepository = examRepository;
+        this.questionRepository = questionRepository;
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.executor = executor;
+    }
+
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        ExecutorService owned = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        try {
+            // the batches are written under the caller's PriorityScope
+            return run(exams, PriorityScope.capturing(executor == null ? owned : executor));
+        } finally {
+            if (owned != null)
+                owned.shutdown();
+        }
+    }
+
+    private BulkSaveReport run(Iterable<Exam> exams, Executor executor) {
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        List<CompletableFuture<BulkSaveReport.BatchResult>> results = new ArrayList<>();
+        CompletableFuture<?> previousExamWrite = CompletableFuture.completedFuture(null);
+
+        List<Exam> batch = new ArrayList<>(batchSize);
+        for (Exam exam : exams) {
+            batch.add(exam);
+            if (batch.size() == batchSize) {
+                previousExamWrite = submit(results, batch, previousExamWrite, inFlight, executor);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty())
+            submit(results, batch, previousExamWrite, inFlight, executor);
+
+        List<BulkSaveReport.BatchResult> batches = new ArrayList<>(results.size());
+        for (CompletableFuture<BulkSaveReport.BatchResult> result : results)
+            batches.add(result.join());
+        return new BulkSaveReport(batches);
+    }
+
+    private CompletableFuture<?> submit(List<CompletableFuture<BulkSaveReport.BatchResult>> results, List<Exam> batch,
+                                        CompletableFuture<?> previousExamWrite, Semaphore inFlight, Executor executor) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        int index = results.size();
+        CompletableFuture<Void> questionWrite = CompletableFuture.runAsync(() -> saveQuestions(batch), executor);
+        // the previous batch's outcome doesn't matter, only that its exam write is done
+        CompletableFuture<List<Exam>> examWrite = questionWrite.thenCombineAsync(
+                previousExamWrite.handle((v, e) -> null),
+                (v, ignored) -> examRepository.saveAll(batch),
+                executor);
+        CompletableFuture<BulkSaveReport.BatchResult> result = examWrite
+                .handle((saved, e) -> e == null
+                        ? new BulkSaveReport.BatchResult(index, batch.size(), saved, null)
+                        : new BulkSaveReport.BatchResult(index, batch.size(), Collections.emptyList(), unwrap(e)))
+                .whenComplete((r, e) -> inFlight.release());
+        results.add(result);
+        return examWrite;
+    }
+
+    private void saveQuestions(List<Exam> batch) {
+        List<String> questions = new ArrayList<>();
+        for (Exam exam : batch)
+            questions.addAll(exam.getQuestions());
+        if (!questions.isEmpty())
+            questionRepository.saveMany(questions);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
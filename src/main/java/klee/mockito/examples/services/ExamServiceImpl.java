@@ -1,40 +1,87 @@
 package klee.mockito.examples.services;
 
+import klee.mockito.examples.index.ExamNameIndex;
+import klee.mockito.examples.index.ParallelNameMatcher;
 import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
 import klee.mockito.examples.repositories.IExamRepository;
 import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.IStreamingExamRepository;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 public class ExamServiceImpl implements IExamService {
     private final IExamRepository examRepository;
     private final IQuestionRepository questionRepository;
+    private final ExamNameIndex nameIndex;
+    private final ParallelNameMatcher nameMatcher;
 
     public ExamServiceImpl(IExamRepository examRepository, IQuestionRepository questionRepository) {
+        this(examRepository, questionRepository, null);
+    }
+
+    // with a name index findAll() is only called once to build it, afterwards save() keeps it up to date
+    public ExamServiceImpl(IExamRepository examRepository, IQuestionRepository questionRepository, ExamNameIndex nameIndex) {
+        this(examRepository, questionRepository, nameIndex, null);
+    }
+
+    // without an index, a name matcher scans findAll() in parallel once the catalog is big enough
+    public ExamServiceImpl(IExamRepository examRepository, IQuestionRepository questionRepository,
+                           ExamNameIndex nameIndex, ParallelNameMatcher nameMatcher) {
         this.examRepository = examRepository;
         this.questionRepository = questionRepository;
+        this.nameIndex = nameIndex;
+        this.nameMatcher = nameMatcher;
     }
 
     @Override
     public Optional<Exam> findExamByName(String name) {
-        return examRepository.findAll()
-                .stream()
+        if (nameIndex != null)
+            return loadedIndex().findFirst(name);
+        if (nameMatcher != null)
+            return nameMatcher.findFirst(examRepository.findAll(), name);
+
+        // a streaming repository finds the match itself, paging or in parallel, and stops there
+        if (examRepository instanceof IStreamingExamRepository streaming)
+            return streaming.findFirstByName(name);
+        return examRepository.findAll().stream()
                 .filter(e -> e.getName().contains(name))
                 .findFirst();
     }
 
+    // ranking and typo tolerance need the index, without one it's a case insensitive scan of findAll()
+    @Override
+    public List<Exam> searchExams(String query, int limit) {
+        if (nameIndex != null)
+            return loadedIndex().search(query, limit);
+
+        String key = query.strip().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || limit <= 0)
+            return List.of();
+        return examRepository.findAll().stream()
+                .filter(e -> e.getName() != null && e.getName().toLowerCase(Locale.ROOT).contains(key))
+                .limit(limit)
+                .toList();
+    }
+
+    // the caller gets its own Exam, the instance held by the repository is left untouched
     @Override
     public Exam findExamByNameWithQuestions(String name) {
-        Optional<Exam> examOptional = findExamByName(name);
-        Exam exam = null;
-        if (examOptional.isPresent()) {
-            exam = examOptional.orElseThrow();
-            List<String> questions = questionRepository.findQuestionsByExamId(exam.getId());
-            questionRepository.findQuestionsByExamId(exam.getId());
-            exam.setQuestions(questions);
+        return findExamViewByName(name).map(ExamView::toExam).orElse(null);
+    }
+
+    @Override
+    public Optional<ExamView> findExamViewByName(String name) {
+        RequestMemo memo = RequestMemo.open();
+        try {
+            return findExamByName(name)
+                    .map(exam -> ExamView.from(exam).withQuestions(findQuestions(exam.getId())));
+        } finally {
+            memo.close();
         }
-        return exam;
     }
 
     @Override
@@ -42,6 +89,51 @@ public class ExamServiceImpl implements IExamService {
         if (!exam.getQuestions().isEmpty())
             questionRepository.saveMany(exam.getQuestions());
 
-        return examRepository.save(exam);
+        Exam saved = examRepository.save(exam);
+        if (nameIndex != null && saved != null)
+            index(Collections.singletonList(saved));
+        return saved;
+    }
+
+    @Override
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        BulkSaveReport report = new ExamBulkSaver(examRepository, questionRepository).saveAll(exams);
+        if (nameIndex != null) {
+            for (BulkSaveReport.BatchResult batch : report.batches())
+                index(batch.saved());
+        }
+        return report;
+    }
+
+    // at most one backend call per exam id while a RequestMemo scope is open
+    private List<String> findQuestions(Long examId) {
+        return RequestMemo.memoize(Memoized.QUESTIONS_BY_EXAM_ID, examId,
+                () -> questionRepository.findQuestionsByExamId(examId));
+    }
+
+    private void index(List<Exam> saved) {
+        synchronized (nameIndex) {
+            if (!nameIndex.isLoaded())
+                return;
+            for (Exam exam : saved) {
+                if (exam != null)
+                    nameIndex.add(exam);
+            }
+        }
+    }
+
+    private ExamNameIndex loadedIndex() {
+        if (!nameIndex.isLoaded()) {
+            synchronized (nameIndex) {
+                if (!nameIndex.isLoaded())
+                    nameIndex.load(examRepository.findAll());
+            }
+        }
+        return nameIndex;
+    }
+
+    // RequestMemo operations of this service
+    private enum Memoized {
+        QUESTIONS_BY_EXAM_ID
     }
 }
@@ -0,0 +1,16 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface IAsyncExamService {
+    CompletableFuture<Optional<Exam>> findExamByName(String name);
+    CompletableFuture<Exam> findExamByNameWithQuestions(String name);
+    CompletableFuture<Optional<ExamView>> findExamViewByName(String name);
+    CompletableFuture<List<Exam>> searchExams(String query, int limit);
+    CompletableFuture<Exam> save(Exam exam);
+}
@@ -1,11 +1,21 @@
 package klee.mockito.examples.services;
 
 import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IExamService {
     Optional<Exam> findExamByName(String name);
     Exam findExamByNameWithQuestions(String name);
+    Optional<ExamView> findExamViewByName(String name);
+    List<Exam> searchExams(String query, int limit);
     Exam save(Exam exam);
+    BulkSaveReport saveAll(Iterable<Exam> exams);
+
+    default BulkSaveReport saveAll(Stream<Exam> exams) {
+        return saveAll((Iterable<Exam>) exams::iterator);
+    }
 }
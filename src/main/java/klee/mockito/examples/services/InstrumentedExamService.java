@@ -0,0 +1,49 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.metrics.IMetricsRegistry;
+import klee.mockito.examples.metrics.Instrumentation;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+
+import java.util.List;
+import java.util.Optional;
+
+public class InstrumentedExamService implements IExamService {
+    private final IExamService delegate;
+    private final Instrumentation instrumentation;
+
+    public InstrumentedExamService(IExamService delegate, IMetricsRegistry registry) {
+        this.delegate = delegate;
+        this.instrumentation = new Instrumentation(registry, "examService");
+    }
+
+    @Override
+    public Optional<Exam> findExamByName(String name) {
+        return instrumentation.record("findExamByName", () -> delegate.findExamByName(name));
+    }
+
+    @Override
+    public Exam findExamByNameWithQuestions(String name) {
+        return instrumentation.record("findExamByNameWithQuestions", () -> delegate.findExamByNameWithQuestions(name));
+    }
+
+    @Override
+    public Optional<ExamView> findExamViewByName(String name) {
+        return instrumentation.record("findExamViewByName", () -> delegate.findExamViewByName(name));
+    }
+
+    @Override
+    public List<Exam> searchExams(String query, int limit) {
+        return instrumentation.record("searchExams", () -> delegate.searchExams(query, limit));
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return instrumentation.record("save", () -> delegate.save(exam));
+    }
+
+    @Override
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        return instrumentation.record("saveAll", () -> delegate.saveAll(exams));
+    }
+}
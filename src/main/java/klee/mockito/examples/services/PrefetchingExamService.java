@@ -0,0 +1,144 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.scheduling.PriorityScope;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+// Speculative question prefetch for findExamByNameWithQuestions.
+// The service remembers which exam id a name resolved to last time. On a warm name the question
+// fetch for that id starts right away, in parallel with the exam lookup, so the latency is
+// close to max(lookup, questions) instead of their sum. When the lookup resolves to another exam
+// the prefetch is cancelled (best effort, a running backend call isn't interrupted) and the
+// questions are fetched the sequential way. Cold names take the plain sequential path.
+public class PrefetchingExamService implements IExamService {
+    private final IExamService delegate;
+    private final IQuestionRepository questionRepository;
+    private final Executor executor;
+    private final Map<String, Long> recentIds;
+
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder prefetchMisses = new LongAdder();
+
+    public PrefetchingExamService(IExamService delegate, IQuestionRepository questionRepository,
+                                  Executor executor, int maxRecentNames) {
+        this.delegate = delegate;
+        this.questionRepository = questionRepository;
+        this.executor = executor;
+        this.recentIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxRecentNames;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Exam> findExamByName(String name) {
+        Optional<Exam> exam = delegate.findExamByName(name);
+        remember(name, exam.orElse(null));
+        return exam;
+    }
+
+    @Override
+    public Exam findExamByNameWithQuestions(String name) {
+        Long predictedId = recentId(name);
+        if (predictedId == null) {
+            Exam exam = delegate.findExamByNameWithQuestions(name);
+            remember(name, exam);
+            return exam;
+        }
+
+        CompletableFuture<List<String>> prefetch = CompletableFuture.supplyAsync(
+                () -> questionRepository.findQuestionsByExamId(predictedId), PriorityScope.capturing(executor));
+        Optional<Exam> examOptional;
+        try {
+            examOptional = delegate.findExamByName(name);
+        } catch (RuntimeException e) {
+            prefetch.cancel(true);
+            throw e;
+        }
+        remember(name, examOptional.orElse(null));
+        if (examOptional.isEmpty()) {
+            prefetch.cancel(true);
+            return null;
+        }
+
+        Exam exam = examOptional.orElseThrow();
+        List<String> questions;
+        if (Objects.equals(exam.getId(), predictedId)) {
+            prefetchHits.increment();
+            questions = join(prefetch);
+        } else {
+            prefetchMisses.increment();
+            prefetch.cancel(true);
+            questions = questionRepository.findQuestionsByExamId(exam.getId());
+        }
+        // the exam may be the instance the repository holds, the caller gets a copy
+        return ExamView.from(exam).withQuestions(questions).toExam();
+    }
+
+    @Override
+    public Optional<ExamView> findExamViewByName(String name) {
+        return delegate.findExamViewByName(name);
+    }
+
+    @Override
+    public List<Exam> searchExams(String query, int limit) {
+        return delegate.searchExams(query, limit);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return delegate.save(exam);
+    }
+
+    @Override
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        return delegate.saveAll(exams);
+    }
+
+    public long getPrefetchHitCount() {
+        return prefetchHits.sum();
+    }
+
+    public long getPrefetchMissCount() {
+        return prefetchMisses.sum();
+    }
+
+    private Long recentId(String name) {
+        synchronized (recentIds) {
+            return recentIds.get(name);
+        }
+    }
+
+    private void remember(String name, Exam exam) {
+        synchronized (recentIds) {
+            if (exam == null || exam.getId() == null) {
+                recentIds.remove(name);
+            } else {
+                recentIds.put(name, exam.getId());
+            }
+        }
+    }
+
+    private static List<String> join(CompletableFuture<List<String>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
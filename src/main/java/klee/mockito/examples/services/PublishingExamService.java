@@ -0,0 +1,114 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.events.ExamChangeEvent;
+import klee.mockito.examples.events.ExamChangeFeed;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Publishes every successful write to an ExamChangeFeed, so caches and indexes can follow the
+// catalog incrementally instead of re-reading findAll().
+// An exam saved without an id is CREATED, otherwise UPDATED; an exam saved with questions also
+// gets a QUESTIONS_ADDED event right after it. Failed writes publish nothing.
+// Every write and its events are one step of the feed (ExamChangeFeed.publishAfter), so the events
+// come in the order the writes happened. saveAll() hands the import to the delegate batchSize
+// exams at a time and publishes each batch as soon as it is written.
+public class PublishingExamService implements IExamService {
+    private final IExamService delegate;
+    private final ExamChangeFeed feed;
+    private final int batchSize;
+
+    public PublishingExamService(IExamService delegate, ExamChangeFeed feed) {
+        this(delegate, feed, ExamBulkSaver.DEFAULT_BATCH_SIZE);
+    }
+
+    public PublishingExamService(IExamService delegate, ExamChangeFeed feed, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be positive");
+        this.delegate = delegate;
+        this.feed = feed;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Optional<Exam> findExamByName(String name) {
+        return delegate.findExamByName(name);
+    }
+
+    @Override
+    public Exam findExamByNameWithQuestions(String name) {
+        return delegate.findExamByNameWithQuestions(name);
+    }
+
+    @Override
+    public Optional<ExamView> findExamViewByName(String name) {
+        return delegate.findExamViewByName(name);
+    }
+
+    @Override
+    public List<Exam> searchExams(String query, int limit) {
+        return delegate.searchExams(query, limit);
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        boolean created = exam.getId() == null;
+        return feed.publishAfter(() -> delegate.save(exam), saved -> {
+            List<ExamChangeFeed.Change> changes = new ArrayList<>(2);
+            if (saved != null)
+                addChanges(changes, saved, created);
+            return changes;
+        });
+    }
+
+    // the report lists the batches in input order, renumbered over the whole import
+    @Override
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        List<BulkSaveReport.BatchResult> results = new ArrayList<>();
+        List<Exam> batch = new ArrayList<>(batchSize);
+        for (Exam exam : exams) {
+            batch.add(exam);
+            if (batch.size() == batchSize) {
+                saveBatch(batch, results);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty())
+            saveBatch(batch, results);
+        return new BulkSaveReport(results);
+    }
+
+    // the created flags are taken before the write, it sets the ids
+    private void saveBatch(List<Exam> batch, List<BulkSaveReport.BatchResult> results) {
+        boolean[] created = new boolean[batch.size()];
+        for (int i = 0; i < created.length; i++)
+            created[i] = batch.get(i).getId() == null;
+
+        BulkSaveReport report = feed.publishAfter(() -> delegate.saveAll(batch), written -> {
+            List<ExamChangeFeed.Change> changes = new ArrayList<>(batch.size() * 2);
+            int position = 0;
+            for (BulkSaveReport.BatchResult result : written.batches()) {
+                if (result.isSuccess()) {
+                    for (int i = 0; i < result.saved().size(); i++) {
+                        if (result.saved().get(i) != null)
+                            addChanges(changes, result.saved().get(i), created[position + i]);
+                    }
+                }
+                position += result.size();
+            }
+            return changes;
+        });
+        for (BulkSaveReport.BatchResult result : report.batches())
+            results.add(new BulkSaveReport.BatchResult(results.size(), result.size(), result.saved(), result.failure()));
+    }
+
+    private static void addChanges(List<ExamChangeFeed.Change> changes, Exam saved, boolean created) {
+        ExamView view = ExamView.from(saved);
+        changes.add(new ExamChangeFeed.Change(created ? ExamChangeEvent.Type.CREATED : ExamChangeEvent.Type.UPDATED, view));
+        if (!view.questions().isEmpty())
+            changes.add(new ExamChangeFeed.Change(ExamChangeEvent.Type.QUESTIONS_ADDED, view));
+    }
+}
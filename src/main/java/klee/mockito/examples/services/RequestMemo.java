@@ -0,0 +1,58 @@
+package klee.mockito.examples.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Request scoped memoization bound to the calling thread.
+// The first open() on a thread starts the scope and its close() ends it, nested open() calls join
+// the running scope, so a handler can wrap several service calls and share their lookups.
+// Entries are keyed by operation and argument, so two lookups that happen to take the same
+// argument (an exam name, an id) never get each other's results. Operations are enum constants
+// declared by the caller.
+// Outside of a scope memoize() just calls the loader.
+public final class RequestMemo implements AutoCloseable {
+    private static final ThreadLocal<RequestMemo> CURRENT = new ThreadLocal<>();
+
+    private final Map<Key, Object> values;
+    private final boolean owner;
+
+    private RequestMemo(Map<Key, Object> values, boolean owner) {
+        this.values = values;
+        this.owner = owner;
+    }
+
+    public static RequestMemo open() {
+        RequestMemo current = CURRENT.get();
+        if (current != null)
+            return new RequestMemo(current.values, false);
+
+        RequestMemo memo = new RequestMemo(new HashMap<>(), true);
+        CURRENT.set(memo);
+        return memo;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T memoize(Enum<?> operation, Object argument, Supplier<T> loader) {
+        RequestMemo current = CURRENT.get();
+        if (current == null)
+            return loader.get();
+
+        Key key = new Key(operation, argument);
+        // containsKey so that null results are remembered too
+        if (current.values.containsKey(key))
+            return (T) current.values.get(key);
+        T value = loader.get();
+        current.values.put(key, value);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (owner)
+            CURRENT.remove();
+    }
+
+    private record Key(Enum<?> operation, Object argument) {
+    }
+}
@@ -0,0 +1,70 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.concurrent.SingleFlight;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// Concurrent identical lookups share one delegate call, see SingleFlight.
+// Only immutable ExamViews are shared, every caller gets its own Exam built from them so callers
+// can't see each other's changes. Null names can't be keys, they and writes go straight to the delegate.
+public class SingleFlightExamService implements IExamService {
+    private final IExamService delegate;
+    private final SingleFlight<String, Optional<ExamView>> byName;
+    private final SingleFlight<String, Optional<ExamView>> views;
+    private final SingleFlight<SearchKey, List<ExamView>> searches;
+
+    public SingleFlightExamService(IExamService delegate, Duration maxWait) {
+        this.delegate = delegate;
+        this.byName = new SingleFlight<>(maxWait);
+        this.views = new SingleFlight<>(maxWait);
+        this.searches = new SingleFlight<>(maxWait);
+    }
+
+    @Override
+    public Optional<Exam> findExamByName(String name) {
+        if (name == null)
+            return delegate.findExamByName(null);
+        return byName.execute(name, () -> delegate.findExamByName(name).map(ExamView::from))
+                .map(ExamView::toExam);
+    }
+
+    @Override
+    public Exam findExamByNameWithQuestions(String name) {
+        return findExamViewByName(name).map(ExamView::toExam).orElse(null);
+    }
+
+    @Override
+    public Optional<ExamView> findExamViewByName(String name) {
+        if (name == null)
+            return delegate.findExamViewByName(null);
+        return views.execute(name, () -> delegate.findExamViewByName(name));
+    }
+
+    @Override
+    public List<Exam> searchExams(String query, int limit) {
+        return searches.execute(new SearchKey(query, limit),
+                        () -> delegate.searchExams(query, limit).stream().map(ExamView::from).toList())
+                .stream().map(ExamView::toExam).toList();
+    }
+
+    @Override
+    public Exam save(Exam exam) {
+        return delegate.save(exam);
+    }
+
+    @Override
+    public BulkSaveReport saveAll(Iterable<Exam> exams) {
+        return delegate.saveAll(exams);
+    }
+
+    public long getSharedCount() {
+        return byName.getSharedCount() + views.getSharedCount() + searches.getSharedCount();
+    }
+
+    private record SearchKey(String query, int limit) {
+    }
+}
@@ -0,0 +1,125 @@
+package klee.mockito.examples.snapshot;
+
+import klee.mockito.examples.codec.ExamCodec;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.CachingQuestionRepository;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Binary snapshot of the whole catalog: exams and their questions.
+// Layout: magic, version, exam count, the exams through one ExamCodec (so every distinct question
+// text is written once, later uses are refs) and a crc32 of everything before.
+// Reading maps the file and decodes straight from the mapping; question texts are interned into
+// the global QuestionDictionary so restored exams share them with the rest of the process.
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x4558534E; // "EXSN"
+    static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CatalogSnapshot() {
+    }
+
+    // written to a temp file and moved into place, a crash never leaves a half written snapshot
+    public static void write(Path path, List<Exam> exams) {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                CRC32 crc = new CRC32();
+                ExamCodec codec = new ExamCodec();
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(exams.size());
+                for (Exam exam : exams) {
+                    int needed = ExamCodec.maxEncodedSize(exam);
+                    if (buffer.remaining() < needed) {
+                        drain(out, buffer, crc);
+                        if (buffer.capacity() < needed)
+                            buffer = ByteBuffer.allocate(needed);
+                    }
+                    codec.encode(exam, buffer);
+                }
+                drain(out, buffer, crc);
+                // the checksum itself is not part of what it covers
+                buffer.putInt((int) crc.getValue()).flip();
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<Exam> read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // loads a snapshot into an empty repository and warms the question cache
+    public static int restore(Path path, InMemoryExamRepository examRepository, CachingQuestionRepository questionCache) {
+        List<Exam> exams = read(path);
+        examRepository.saveAll(exams);
+        if (questionCache != null) {
+            Map<Long, List<String>> questions = new HashMap<>();
+            // exams stored without inline questions would cache an empty list for the whole TTL
+            for (Exam exam : exams) {
+                if (!exam.getQuestions().isEmpty())
+                    questions.put(exam.getId(), exam.getQuestions());
+            }
+            questionCache.preload(questions);
+        }
+        return exams.size();
+    }
+
+    static List<Exam> decode(ByteBuffer buffer) {
+        int size = buffer.limit();
+        if (size < 8 || buffer.getInt(0) != MAGIC)
+            throw new IllegalStateException("not a catalog snapshot");
+        int version = buffer.getInt(4);
+        if (version != VERSION)
+            throw new IllegalStateException("unsupported snapshot version " + version);
+        // magic, version, exam count and the crc of an empty catalog
+        if (size < 16)
+            throw new IllegalStateException("catalog snapshot is truncated");
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, size - 4));
+        if ((int) crc.getValue() != buffer.getInt(size - 4))
+            throw new IllegalStateException("catalog snapshot is corrupted");
+
+        buffer.position(8);
+        int examCount = buffer.getInt();
+        ExamCodec codec = new ExamCodec();
+        List<Exam> exams = new ArrayList<>(examCount);
+        for (int i = 0; i < examCount; i++)
+            exams.add(codec.decode(buffer));
+        return exams;
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining())
+            out.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package klee.mockito.examples.snapshot;
+
+import klee.mockito.examples.models.Exam;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Writes a snapshot of the catalog every interval on a background thread, e.g.
+// new CatalogSnapshotter(path, examRepository::findAll, Duration.ofMinutes(5))
+public class CatalogSnapshotter implements AutoCloseable {
+    private final Path path;
+    private final Supplier<List<Exam>> catalog;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong written = new AtomicLong();
+    private volatile RuntimeException lastFailure;
+
+    public CatalogSnapshotter(Path path, Supplier<List<Exam>> catalog, Duration interval) {
+        this.path = path;
+        this.catalog = catalog;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    // synchronized: manual calls and the scheduled run share the temp file
+    public synchronized void snapshot() {
+        CatalogSnapshot.write(path, catalog.get());
+        written.incrementAndGet();
+    }
+
+    public long getSnapshotCount() {
+        return written.get();
+    }
+
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    // takes a last snapshot on the way out
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    // a failed run must not cancel the schedule
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+            lastFailure = null;
+        } catch (RuntimeException e) {
+            lastFailure = e;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package klee.mockito.examples.codec;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.QuestionList;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        assertRoundTrip(exam(5L, "Math", "arithmetic", "integrals"));
+        assertRoundTrip(exam(null, null));
+        assertRoundTrip(exam(-3L, ""));
+        assertRoundTrip(exam(Long.MAX_VALUE, "max"));
+        assertRoundTrip(exam(Long.MIN_VALUE, "min"));
+        // 2, 3 and 4 byte UTF-8, repeated questions inside one exam
+        assertRoundTrip(exam(7L, "Ñandú 数学 📚", "¿qué?", "ñandú", "¿qué?", "😀"));
+    }
+
+    // the same bytes as String.getBytes, a lone surrogate included
+    @Test
+    void testUtf8MatchesTheJdk() {
+        for (String value : Arrays.asList("plain", "ñ", "数学", "😀", "broken \uD800 surrogate", "\uDC00")) {
+            byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, ExamCodec.utf8Length(value), value);
+
+            Exam exam = exam(1L, value);
+            ByteBuffer buffer = ByteBuffer.allocate(ExamCodec.maxEncodedSize(exam));
+            new ExamCodec().encode(exam, buffer);
+            buffer.flip();
+            assertEquals(new String(expected, StandardCharsets.UTF_8), new ExamCodec().decode(buffer).getName());
+        }
+    }
+
+    @Test
+    void testVarints() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for (long value : new long[]{0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            buffer.clear();
+            ExamCodec.putVarlong(buffer, ExamCodec.zigzag(value));
+            buffer.flip();
+            assertEquals(value, ExamCodec.unzigzag(ExamCodec.getVarlong(buffer)));
+        }
+        buffer.clear();
+        ExamCodec.putVarlong(buffer, ExamCodec.zigzag(-1));
+        assertEquals(1, buffer.position());
+    }
+
+    // one codec per stream writes each question once, later exams only carry refs
+    @Test
+    void testSharedQuestionTable() {
+        List<Exam> exams = Arrays.asList(
+                exam(1L, "Math", "arithmetic", "integrals"),
+                exam(2L, "Math II", "integrals", "arithmetic"),
+                exam(3L, "Math III", "arithmetic"));
+        ByteBuffer stream = ByteBuffer.allocate(1024);
+        ExamCodec writer = new ExamCodec();
+        for (Exam exam : exams)
+            writer.encode(exam, stream);
+        stream.flip();
+
+        int standalone = 0;
+        for (Exam exam : exams)
+            standalone += encode(exam).remaining();
+        assertTrue(stream.remaining() < standalone);
+
+        ExamCodec reader = new ExamCodec();
+        for (Exam exam : exams)
+            assertSameExam(exam, reader.decode(stream));
+        assertFalse(stream.hasRemaining());
+    }
+
+    @Test
+    void testDirectBuffersAndQuestionList() {
+        Exam exam = exam(9L, "Physics", "optics", "mechanics");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ExamCodec.maxEncodedSize(exam));
+        new ExamCodec().encode(exam, buffer);
+        buffer.flip();
+
+        Exam decoded = new ExamCodec().decode(buffer);
+        assertSameExam(exam, decoded);
+        assertInstanceOf(QuestionList.class, decoded.getQuestions());
+    }
+
+    // nothing is written when the exam doesn't fit, the codec stays in step
+    @Test
+    void testOverflowIsCheckedUpFront() {
+        ExamCodec writer = new ExamCodec();
+        Exam exam = exam(1L, "Math", "arithmetic");
+        ByteBuffer small = ByteBuffer.allocate(8);
+        assertThrows(BufferOverflowException.class, () -> writer.encode(exam, small));
+        assertEquals(0, small.position());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        writer.encode(exam, buffer);
+        buffer.flip();
+        assertSameExam(exam, new ExamCodec().decode(buffer));
+    }
+
+    @Test
+    void testMalformedInputIsRejected() {
+        assertThrows(IllegalStateException.class, () -> new ExamCodec().decode(ByteBuffer.wrap(new byte[]{(byte) 0xFF})));
+        // a ref to a question this codec never saw
+        assertThrows(IllegalStateException.class, () -> new ExamCodec().decode(ByteBuffer.wrap(new byte[]{0, 1, 1})));
+        // a name longer than the buffer
+        assertThrows(IllegalStateException.class, () -> new ExamCodec().decode(ByteBuffer.wrap(new byte[]{2, 100, 'a'})));
+        // a huge question count is rejected before the ids are allocated
+        assertThrows(IllegalStateException.class,
+                () -> new ExamCodec().decode(ByteBuffer.wrap(new byte[]{0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07})));
+        // a negative one
+        assertThrows(IllegalStateException.class,
+                () -> new ExamCodec().decode(ByteBuffer.wrap(new byte[]{0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F})));
+    }
+
+    // every cut of a valid encoding fails the same way, not with BufferUnderflowException
+    @Test
+    void testTruncatedInputIsRejected() {
+        Exam exam = new Exam(42L, "Math");
+        exam.setQuestions(Arrays.asList("arithmetic", "integrals"));
+        ByteBuffer encoded = encode(exam);
+        for (int length = 0; length < encoded.remaining(); length++) {
+            ByteBuffer cut = encoded.duplicate().limit(length);
+            assertThrows(IllegalStateException.class, () -> new ExamCodec().decode(cut));
+        }
+    }
+
+    private static void assertRoundTrip(Exam exam) {
+        assertSameExam(exam, new ExamCodec().decode(encode(exam)));
+    }
+
+    private static ByteBuffer encode(Exam exam) {
+        ByteBuffer buffer = ByteBuffer.allocate(ExamCodec.maxEncodedSize(exam));
+        new ExamCodec().encode(exam, buffer);
+        return buffer.flip();
+    }
+
+    private static void assertSameExam(Exam expected, Exam actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getQuestions(), actual.getQuestions());
+    }
+
+    private static Exam exam(Long id, String name, String... questions) {
+        Exam exam = new Exam(id, name);
+        exam.setQuestions(Arrays.asList(questions));
+        return exam;
+    }
+}
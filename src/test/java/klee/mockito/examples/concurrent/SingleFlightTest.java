@@ -0,0 +1,112 @@
+package klee.mockito.examples.concurrent;
+
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(executor.submit(() -> flight.execute("Math", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        awaitShared(flight, 9);
+        release.countDown();
+
+        for (Future<Integer> result : results)
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getCallCount());
+        assertEquals(0, flight.inFlightCount());
+
+        // nothing is cached, the next burst loads again
+        assertEquals(7, flight.execute("Math", () -> 7));
+    }
+
+    @Test
+    void testFailureReachesEveryWaiter() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> flight.execute("Math", () -> {
+                await(release);
+                throw new IllegalStateException("backend down");
+            })));
+        }
+        awaitShared(flight, 3);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void testWaitersGiveUpAfterMaxWait() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> leader = executor.submit(() -> flight.execute("Math", () -> {
+            await(release);
+            return 42;
+        }));
+        while (flight.inFlightCount() == 0)
+            Thread.sleep(1);
+
+        assertThrows(RepositoryUnavailableException.class, () -> flight.execute("Math", () -> 0));
+        release.countDown();
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitShared(SingleFlight<?, ?> flight, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getSharedCount() < waiters && System.nanoTime() < deadline)
+            Thread.sleep(1);
+        assertEquals(waiters, flight.getSharedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package klee.mockito.examples.events;
+
+import klee.mockito.examples.models.ExamView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamChangeFeedTest {
+    ExamChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    // several publishers, two subscribers: both see every sequence once and in order
+    @Test
+    void testOrderedDeliveryToEverySubscriber() throws InterruptedException {
+        feed = new ExamChangeFeed(64, 16);
+        List<Long> first = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        List<Long> second = Collections.synchronizedList(new ArrayList<>());
+        feed.subscribe(events -> {
+            batchSizes.add(events.size());
+            events.forEach(event -> first.add(event.sequence()));
+        });
+        feed.subscribe(events -> events.forEach(event -> second.add(event.sequence())));
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 1000; i++)
+                    feed.publish(ExamChangeEvent.Type.CREATED, new ExamView((long) i, "Exam " + i, null));
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers)
+            publisher.join();
+        feed.close();
+
+        assertEquals(4000, first.size());
+        for (int i = 0; i < 4000; i++) {
+            assertEquals(i, first.get(i));
+            assertEquals(i, second.get(i));
+        }
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 16));
+    }
+
+    // a full ring holds publishers back until the subscriber catches up
+    @Test
+    void testSlowSubscriberHoldsPublishersBack() throws InterruptedException {
+        feed = new ExamChangeFeed(4, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        feed.subscribe(events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            events.forEach(event -> seen.add(event.sequence()));
+        });
+
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 10; i++)
+                feed.publish(ExamChangeEvent.Type.UPDATED, new ExamView(1L, "Math", null));
+        });
+        publisher.start();
+        publisher.join(200);
+        assertTrue(publisher.isAlive());
+        assertTrue(feed.lastSequence() < 9);
+
+        release.countDown();
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(publisher.isAlive());
+        feed.close();
+        assertEquals(10, seen.size());
+    }
+
+    @Test
+    void testFailingListenerKeepsItsSubscription() {
+        feed = new ExamChangeFeed();
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        ExamChangeFeed.Subscription subscription = feed.subscribe(events -> {
+            events.forEach(event -> seen.add(event.sequence()));
+            if (events.get(0).sequence() == 0)
+                throw new IllegalStateException("boom");
+        });
+
+        feed.publish(ExamChangeEvent.Type.CREATED, new ExamView(1L, "Math", null));
+        feed.publish(ExamChangeEvent.Type.CREATED, new ExamView(2L, "English", null));
+        subscription.close();
+
+        assertEquals(List.of(0L, 1L), seen);
+        assertEquals(2, subscription.position());
+        assertInstanceOf(IllegalStateException.class, subscription.getLastFailure());
+    }
+}
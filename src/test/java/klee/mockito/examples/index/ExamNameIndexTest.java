@@ -0,0 +1,93 @@
+package klee.mockito.examples.index;
+
+import klee.mockito.examples.models.Exam;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamNameIndexTest {
+    ExamNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExamNameIndex();
+        index.load(Arrays.asList(
+                new Exam(5L, "Math"),
+                new Exam(6L, "English"),
+                new Exam(7L, "History"),
+                new Exam(8L, "Applied Math")
+        ));
+    }
+
+    @Test
+    void testFindFirstKeepsRepositoryOrder() {
+        Optional<Exam> exam = index.findFirst("Math");
+        assertTrue(exam.isPresent());
+        assertEquals(5L, exam.orElseThrow().getId());
+    }
+
+    // queries shorter than a trigram use the 1 and 2 char grams
+    @Test
+    void testShortQueries() {
+        assertEquals(6L, index.findFirst("En").orElseThrow().getId());
+        assertEquals(7L, index.findFirst("y").orElseThrow().getId());
+        assertEquals(5L, index.findFirst("").orElseThrow().getId());
+    }
+
+    @Test
+    void testNoMatch() {
+        assertFalse(index.findFirst("Physics").isPresent());
+        assertFalse(index.findFirst("Mathish").isPresent());
+    }
+
+    @Test
+    void testAddAndUpdate() {
+        index.add(new Exam(9L, "Physics"));
+        assertEquals(9L, index.findFirst("Phys").orElseThrow().getId());
+
+        // an update keeps its position and drops the old name
+        index.add(new Exam(5L, "Chemistry"));
+        assertEquals(8L, index.findFirst("Math").orElseThrow().getId());
+        assertEquals(5L, index.findFirst("Chem").orElseThrow().getId());
+        assertEquals(5, index.size());
+    }
+
+    // exact name first, then name prefixes, then word prefixes
+    @Test
+    void testSearchRanking() {
+        index.add(new Exam(9L, "Mathematics"));
+
+        List<Exam> result = index.search("math", 10);
+        assertEquals(Arrays.asList(5L, 9L, 8L), ids(result));
+        assertEquals(Arrays.asList(5L, 9L), ids(index.search("MATH", 2)));
+    }
+
+    @Test
+    void testSearchFuzzy() {
+        assertEquals(Arrays.asList(7L), ids(index.search("histroy", 5)));
+        assertEquals(Arrays.asList(6L), ids(index.search("englsh", 5)));
+        assertTrue(index.search("histroy", 5, 0).isEmpty());
+    }
+
+    @Test
+    void testSearchBlankQuery() {
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("   ", 10, 2).isEmpty());
+    }
+
+    @Test
+    void testSearchFollowsUpdates() {
+        index.add(new Exam(5L, "Chemistry"));
+        assertEquals(Arrays.asList(8L), ids(index.search("math", 10)));
+        assertEquals(Arrays.asList(5L), ids(index.search("chem", 10)));
+    }
+
+    private static List<Long> ids(List<Exam> exams) {
+        return exams.stream().map(Exam::getId).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package klee.mockito.examples.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrieTest {
+    NameTrie trie = new NameTrie();
+
+    @Test
+    void testRemovePrunesEmptyBranches() {
+        trie.add("math", 1);
+        trie.add("mathematics", 2);
+        int nodes = trie.nodeCount();
+
+        trie.add("music", 3);
+        trie.remove("music", 3);
+        assertEquals(nodes, trie.nodeCount());
+
+        // "math" still carries a value, only the tail below it goes
+        trie.remove("mathematics", 2);
+        assertEquals(5, trie.nodeCount());
+        assertNotNull(trie.find("math"));
+        assertNull(trie.find("mathe"));
+
+        trie.remove("math", 1);
+        assertEquals(1, trie.nodeCount());
+    }
+
+    @Test
+    void testRemoveKeepsSharedKeys() {
+        trie.add("math", 1);
+        trie.add("math", 2);
+        trie.remove("math", 1);
+        trie.remove("math", 7);
+        trie.remove("physics", 1);
+
+        List<Integer> values = new ArrayList<>();
+        NameTrie.collect(trie.find("math"), (value, depth) -> values.add(value));
+        assertEquals(List.of(2), values);
+    }
+
+    // churn: renames must not grow the trie
+    @Test
+    void testChurnDoesNotGrowTheTrie() {
+        for (int i = 0; i < 1_000; i++) {
+            trie.add("exam " + i, i);
+            trie.remove("exam " + i, i);
+        }
+        assertEquals(1, trie.nodeCount());
+
+        List<Integer> found = new ArrayList<>();
+        trie.fuzzyPrefix("exam 1", 1, (value, distance) -> found.add(value));
+        assertTrue(found.isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package klee.mockito.examples.index;
+
+import klee.mockito.examples.models.Exam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelNameMatcherTest {
+    ForkJoinPool pool;
+    ParallelNameMatcher matcher;
+    List<Exam> exams;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        // tiny chunks so even a small catalog is split into many tasks
+        matcher = new ParallelNameMatcher(pool, 0, 16);
+        exams = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            exams.add(new Exam((long) i, "Exam-" + i));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // several chunks match, the first one in repository order wins every time
+    @Test
+    void testFirstMatchInRepositoryOrder() {
+        for (int run = 0; run < 20; run++) {
+            assertEquals(9L, matcher.findFirst(exams, "-9").orElseThrow().getId());
+            assertEquals(7_777L, matcher.findFirst(exams, "7777").orElseThrow().getId());
+        }
+    }
+
+    @Test
+    void testNoMatchAndNullNames() {
+        exams.set(3, new Exam(3L, null));
+        assertFalse(matcher.findFirst(exams, "Physics").isPresent());
+        assertEquals(4L, matcher.findFirst(exams, "-4").orElseThrow().getId());
+    }
+
+    @Test
+    void testSequentialBelowThresholdAndLinkedLists() {
+        ParallelNameMatcher sequential = new ParallelNameMatcher(pool, 1_000_000, 16);
+        assertEquals(9_999L, sequential.findFirst(exams, "9999").orElseThrow().getId());
+        assertEquals(9_999L, matcher.findFirst(new LinkedList<>(exams), "9999").orElseThrow().getId());
+    }
+}
@@ -0,0 +1,63 @@
+package klee.mockito.examples.metrics;
+
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.InstrumentedQuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentationTest {
+    @Mock
+    IQuestionRepository questionRepository;
+
+    InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++)
+            histogram.record(i * 1_000);
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, histogram.valueAtPercentile(50), 5_000_000 * 0.04);
+        assertEquals(9_900_000, histogram.valueAtPercentile(99), 9_900_000 * 0.04);
+        assertEquals(10_000_000, histogram.valueAtPercentile(100));
+        assertEquals(5_000_500, histogram.getMean(), 1);
+    }
+
+    @Test
+    void testBucketsCoverTheWholeRange() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    void testInstrumentedRepositoryRecordsCallsAndErrors() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(Arrays.asList("arithmetic"));
+        when(questionRepository.findQuestionsByExamId(6L)).thenThrow(IllegalStateException.class);
+        IQuestionRepository instrumented = new InstrumentedQuestionRepository(questionRepository, registry);
+
+        instrumented.findQuestionsByExamId(5L);
+        assertThrows(IllegalStateException.class, () -> instrumented.findQuestionsByExamId(6L));
+        instrumented.saveMany(Arrays.asList("arithmetic"));
+
+        String name = "questionRepository.findQuestionsByExamId";
+        assertEquals(2, registry.timer(name).getCount());
+        assertEquals(2, registry.counter(name + ".calls").getCount());
+        assertEquals(1, registry.counter(name + ".errors").getCount());
+        assertEquals(0, registry.gauge(name + ".inFlight").getValue());
+        assertEquals(1, registry.counter("questionRepository.saveMany.calls").getCount());
+        assertTrue(registry.timer(name).percentile(99, TimeUnit.NANOSECONDS) > 0);
+    }
+}
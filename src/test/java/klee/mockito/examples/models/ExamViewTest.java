@@ -0,0 +1,48 @@
+package klee.mockito.examples.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamViewTest {
+
+    @Test
+    void testQuestionsAreCopiedOnce() {
+        List<String> questions = new ArrayList<>(Arrays.asList("arithmetic", "geometry"));
+        ExamView view = new ExamView(5L, "Math", questions);
+        questions.add("algebra");
+
+        assertEquals(2, view.questions().size());
+        assertThrows(UnsupportedOperationException.class, () -> view.questions().add("algebra"));
+    }
+
+    // the QuestionList is passed around as it is in both directions
+    @Test
+    void testConversionsShareQuestions() {
+        Exam exam = new Exam(5L, "Math");
+        exam.setQuestions(Arrays.asList("arithmetic", "geometry"));
+
+        ExamView view = ExamView.from(exam);
+        assertSame(exam.getQuestions(), view.questions());
+
+        Exam copy = view.toExam();
+        assertNotSame(exam, copy);
+        assertSame(view.questions(), copy.getQuestions());
+        copy.setName("Physics");
+        assertEquals("Math", view.name());
+    }
+
+    @Test
+    void testBuilder() {
+        ExamView view = ExamView.builder().id(5L).name("Math").build();
+        assertTrue(view.questions().isEmpty());
+
+        ExamView updated = view.toBuilder().questions(List.of("geometry")).build();
+        assertEquals(new ExamView(5L, "Math", List.of("geometry")), updated);
+        assertTrue(view.questions().isEmpty());
+    }
+}
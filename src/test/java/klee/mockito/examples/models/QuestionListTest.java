@@ -0,0 +1,65 @@
+package klee.mockito.examples.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionListTest {
+    @Test
+    void testSameTextsShareIds() {
+        QuestionDictionary dictionary = new QuestionDictionary();
+        QuestionList first = QuestionList.of(dictionary, Arrays.asList("arithmetic", "integrals"));
+        QuestionList second = QuestionList.of(dictionary, Arrays.asList("integrals", "geometry", "arithmetic"));
+
+        assertEquals(first.idAt(1), second.idAt(0));
+        assertEquals(first.idAt(0), second.idAt(2));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void testBehavesLikeAReadOnlyList() {
+        List<String> questions = Arrays.asList("arithmetic", "integrals", "geometry");
+        QuestionList list = QuestionList.of(questions);
+
+        assertEquals(questions, list);
+        assertEquals(questions.hashCode(), list.hashCode());
+        assertTrue(list.contains("geometry"));
+        assertSame(list, QuestionList.of(list));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("trigonometry"));
+    }
+
+    @Test
+    void testExamStoresCompactQuestions() {
+        Exam exam = new Exam(5L, "Math");
+        assertTrue(exam.getQuestions().isEmpty());
+
+        exam.setQuestions(Arrays.asList("arithmetic", "integrals"));
+        assertInstanceOf(QuestionList.class, exam.getQuestions());
+        assertEquals("integrals", exam.getQuestions().get(1));
+        assertThrows(UnsupportedOperationException.class, () -> exam.getQuestions().add("geometry"));
+    }
+
+    @Test
+    void testNullQuestionsAreRejected() {
+        QuestionDictionary dictionary = new QuestionDictionary();
+        NullPointerException e = assertThrows(NullPointerException.class,
+                () -> QuestionList.of(dictionary, Arrays.asList("arithmetic", null)));
+        assertEquals("question 1 must not be null", e.getMessage());
+        assertEquals(0, dictionary.size());
+        assertThrows(NullPointerException.class, () -> dictionary.intern(null));
+        assertThrows(NullPointerException.class, () -> new Exam(5L, "Math").setQuestions(Arrays.asList((String) null)));
+    }
+
+    // the dictionary keeps working while it grows past its initial capacity
+    @Test
+    void testDictionaryGrows() {
+        QuestionDictionary dictionary = new QuestionDictionary();
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, dictionary.intern("question " + i));
+        assertEquals("question 999", dictionary.text(999));
+        assertEquals(500, dictionary.intern("question 500"));
+    }
+}
@@ -0,0 +1,135 @@
+package klee.mockito.examples.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingQuestionRepositoryTest {
+    static final List<String> QUESTIONS = Arrays.asList("arithmetic", "integrals");
+
+    @Mock
+    IQuestionRepository questionRepository;
+
+    AtomicLong now;
+    CachingQuestionRepository cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        cache = new CachingQuestionRepository(questionRepository, 2, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    void testHitsDontReachBackend() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS);
+        cache.findQuestionsByExamId(5L);
+        List<String> questions = cache.findQuestionsByExamId(5L);
+
+        assertEquals(QUESTIONS, questions);
+        verify(questionRepository, times(1)).findQuestionsByExamId(5L);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testTtlExpiry() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS);
+        cache.findQuestionsByExamId(5L);
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.findQuestionsByExamId(5L);
+
+        verify(questionRepository, times(2)).findQuestionsByExamId(5L);
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testTtlSurvivesNanoTimeOverflow() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS);
+        now.set(Long.MAX_VALUE - Duration.ofSeconds(5).toNanos());
+        cache.findQuestionsByExamId(5L);
+        now.addAndGet(Duration.ofSeconds(9).toNanos()); // wraps past Long.MAX_VALUE
+        cache.findQuestionsByExamId(5L);
+
+        verify(questionRepository, times(1)).findQuestionsByExamId(5L);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.findQuestionsByExamId(5L);
+        verify(questionRepository, times(2)).findQuestionsByExamId(5L);
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(QUESTIONS);
+        cache.findQuestionsByExamId(5L);
+        cache.findQuestionsByExamId(6L);
+        cache.findQuestionsByExamId(5L); // 6 becomes the eldest
+        cache.findQuestionsByExamId(7L);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.findQuestionsByExamId(5L);
+        cache.findQuestionsByExamId(6L);
+        verify(questionRepository, times(1)).findQuestionsByExamId(5L);
+        verify(questionRepository, times(2)).findQuestionsByExamId(6L);
+    }
+
+    @Test
+    void testSaveManyInvalidates() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS);
+        cache.findQuestionsByExamId(5L);
+        cache.saveMany(QUESTIONS);
+        cache.findQuestionsByExamId(5L);
+
+        verify(questionRepository).saveMany(QUESTIONS);
+        verify(questionRepository, times(2)).findQuestionsByExamId(5L);
+    }
+
+    // the write lands while the old questions are being loaded, they must not be cached
+    @Test
+    void testLoadOverlappingSaveManyIsNotCached() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenAnswer(invocation -> {
+            cache.saveMany(List.of("derivatives"));
+            return QUESTIONS;
+        }).thenReturn(List.of("derivatives"));
+
+        assertEquals(QUESTIONS, cache.findQuestionsByExamId(5L));
+        assertEquals(0, cache.size());
+        assertEquals(List.of("derivatives"), cache.findQuestionsByExamId(5L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testBulkLoadOverlappingSaveManyIsNotCached() {
+        when(questionRepository.findQuestionsByExamIds(Set.of(5L))).thenAnswer(invocation -> {
+            cache.saveMany(List.of("derivatives"));
+            return Map.of(5L, QUESTIONS);
+        });
+
+        assertEquals(Map.of(5L, QUESTIONS), cache.findQuestionsByExamIds(List.of(5L)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testBulkLookupOnlyLoadsMisses() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS);
+        when(questionRepository.findQuestionsByExamIds(anyCollection())).thenReturn(Map.of(6L, QUESTIONS));
+        cache.findQuestionsByExamId(5L);
+        Map<Long, List<String>> questions = cache.findQuestionsByExamIds(Arrays.asList(5L, 6L));
+
+        assertEquals(2, questions.size());
+        verify(questionRepository).findQuestionsByExamIds(eq(Set.of(6L)));
+        assertEquals(1, cache.getHitCount());
+    }
+}
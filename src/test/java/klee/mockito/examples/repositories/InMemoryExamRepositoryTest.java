@@ -0,0 +1,106 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryExamRepositoryTest {
+    InMemoryExamRepository repository = new InMemoryExamRepository();
+
+    @Test
+    void testSaveGeneratesIds() {
+        Exam math = repository.save(new Exam(null, "Math"));
+        Exam english = repository.save(new Exam(null, "English"));
+
+        assertEquals(1L, math.getId());
+        assertEquals(2L, english.getId());
+        assertEquals("English", repository.findById(2L).orElseThrow().getName());
+        assertFalse(repository.findById(3L).isPresent());
+    }
+
+    @Test
+    void testUpdateKeepsIdAndOrder() {
+        repository.save(new Exam(null, "Math"));
+        repository.save(new Exam(null, "English"));
+        repository.save(new Exam(1L, "Algebra"));
+
+        List<Exam> exams = repository.findAll();
+        assertEquals(2, exams.size());
+        assertEquals("Algebra", exams.get(0).getName());
+        assertEquals(3L, repository.save(new Exam(null, "History")).getId());
+    }
+
+    // ids saved from outside move the sequence so generated ids never collide with them
+    @Test
+    void testRestoredIdsAdvanceTheSequence() {
+        repository.save(new Exam(10L, "Math"));
+        assertEquals(11L, repository.save(new Exam(null, "English")).getId());
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterSaves() {
+        repository.save(new Exam(null, "Math"));
+        List<Exam> snapshot = repository.findAll();
+        repository.save(new Exam(null, "English"));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(2, repository.findAll().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Exam(null, "History")));
+    }
+
+    @Test
+    void testStreamAllPagesThroughTheCatalog() {
+        for (int i = 0; i < 25; i++)
+            repository.save(new Exam(null, "Exam " + i));
+
+        assertEquals(10, repository.findPage(null, 10).size());
+        assertEquals(21L, repository.findPage(20L, 10).get(0).getId());
+        assertEquals(5, repository.findPage(20L, 10).size());
+        assertEquals(25, repository.streamAll(10).count());
+        assertEquals("Exam 24", repository.streamAll(7).reduce((a, b) -> b).orElseThrow().getName());
+    }
+
+    @Test
+    void testConcurrentSaves() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            int n = i;
+            executor.execute(() -> repository.save(new Exam(null, "Exam " + n)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Set<Long> ids = new HashSet<>();
+        repository.findAll().forEach(exam -> ids.add(exam.getId()));
+        assertEquals(10_000, ids.size());
+        assertEquals(10_000, repository.size());
+    }
+
+    // exams come in pairs, a snapshot taken in the middle of a saveAll would hold an odd number
+    @Test
+    void testSnapshotsSeeWholeBatches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 5_000; i++)
+                repository.saveAll(List.of(new Exam(null, "A" + i), new Exam(null, "B" + i)));
+        });
+        Future<?> reader = executor.submit(() -> {
+            while (!writer.isDone())
+                assertEquals(0, repository.findAll().size() % 2);
+        });
+        writer.get(10, TimeUnit.SECONDS);
+        reader.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(10_000, repository.findAll().size());
+    }
+}
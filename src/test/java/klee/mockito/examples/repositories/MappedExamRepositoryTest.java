@@ -0,0 +1,137 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedExamRepositoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSavesSurviveRestart() {
+        Path log = dir.resolve("exams.log");
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            Exam math = new Exam(null, "Math");
+            math.setQuestions(Arrays.asList("arithmetic", "integrals"));
+            repository.save(math);
+            repository.save(new Exam(null, "English"));
+            repository.save(new Exam(1L, "Algebra"));
+        }
+
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            List<Exam> exams = repository.findAll();
+            assertEquals(2, exams.size());
+            assertEquals("Algebra", exams.get(0).getName());
+            assertEquals("English", repository.findById(2L).orElseThrow().getName());
+            assertEquals(3L, repository.save(new Exam(null, "History")).getId());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        Path log = dir.resolve("exams.log");
+        long end;
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            repository.save(new Exam(null, "Math"));
+            end = repository.logSize();
+        }
+        // a record header without its payload, as left behind by a crash mid-save
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(0, 40).putInt(4, 12345), end);
+        }
+
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            assertEquals(1, repository.findAll().size());
+            assertEquals(end, repository.logSize());
+            repository.save(new Exam(null, "English"));
+        }
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            assertEquals(2, repository.findAll().size());
+        }
+    }
+
+    @Test
+    void testCompactionDropsSupersededRecords() {
+        Path log = dir.resolve("exams.log");
+        try (MappedExamRepository repository = new MappedExamRepository(log, false, 0.9)) {
+            for (int i = 0; i < 100; i++)
+                repository.save(new Exam(null, "Exam " + i));
+            for (int round = 0; round < 10; round++)
+                for (long id = 1; id <= 100; id++)
+                    repository.save(new Exam(id, "Exam " + id + " v" + round));
+
+            long before = repository.logSize();
+            repository.compact();
+            assertTrue(repository.logSize() < before / 5);
+            repository.save(new Exam(null, "After compaction"));
+        }
+
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            assertEquals(101, repository.findAll().size());
+            assertEquals("Exam 7 v9", repository.findById(7L).orElseThrow().getName());
+            assertEquals("After compaction", repository.findById(101L).orElseThrow().getName());
+        }
+    }
+
+    // close() waits for the compaction, the log it leaves behind is the one it was using
+    @Test
+    void testCloseDuringCompaction() {
+        Path log = dir.resolve("exams.log");
+        MappedExamRepository repository = new MappedExamRepository(log, false, 0.9);
+        for (int round = 0; round < 50; round++)
+            for (long id = 1; id <= 100; id++)
+                repository.save(new Exam(id, "Exam " + id + " v" + round));
+
+        CompletableFuture<Void> compaction = CompletableFuture.runAsync(repository::compact);
+        repository.close();
+        try {
+            compaction.join();
+        } catch (CompletionException e) {
+            // given up because of the close, or not even started
+        }
+        assertFalse(Files.exists(dir.resolve("exams.log.compact")));
+
+        try (MappedExamRepository reopened = new MappedExamRepository(log)) {
+            assertEquals(100, reopened.findAll().size());
+            assertEquals("Exam 7 v49", reopened.findById(7L).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void testWritesAfterCloseFail() {
+        MappedExamRepository repository = new MappedExamRepository(dir.resolve("exams.log"));
+        repository.close();
+
+        assertThrows(IllegalStateException.class, () -> repository.save(new Exam(null, "Math")));
+        assertThrows(IllegalStateException.class, () -> repository.saveAll(List.of(new Exam(null, "Math"))));
+    }
+
+    // a directory in the way of the compacted file makes the rewrite fail
+    @Test
+    void testCompactionFailureIsRecorded() throws IOException {
+        Path log = dir.resolve("exams.log");
+        Files.createDirectories(dir.resolve("exams.log.compact").resolve("blocked"));
+        try (MappedExamRepository repository = new MappedExamRepository(log)) {
+            repository.save(new Exam(null, "Math"));
+
+            assertThrows(CompletionException.class, repository::compact);
+            assertInstanceOf(UncheckedIOException.class, repository.getLastCompactionFailure());
+            assertEquals("Math", repository.findById(1L).orElseThrow().getName());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package klee.mockito.examples.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionBatchLoaderTest {
+    @Mock
+    IQuestionRepository questionRepository;
+
+    @Test
+    void testRequestsInWindowAreCoalesced() {
+        when(questionRepository.findQuestionsByExamIds(anyCollection())).then(invocation -> questionsFor(invocation.getArgument(0)));
+
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        try (QuestionBatchLoader loader = new QuestionBatchLoader(questionRepository, 100, Duration.ofMillis(50))) {
+            for (long id = 0; id < 10; id++)
+                futures.add(loader.load(id % 5));
+            futures.forEach(CompletableFuture::join);
+        }
+
+        assertEquals(Arrays.asList("question 3"), futures.get(8).join());
+        verify(questionRepository, times(1)).findQuestionsByExamIds(anyCollection());
+        verify(questionRepository, never()).findQuestionsByExamId(anyLong());
+    }
+
+    @Test
+    void testMaxBatchSizeDispatchesEarly() {
+        when(questionRepository.findQuestionsByExamIds(anyCollection())).then(invocation -> questionsFor(invocation.getArgument(0)));
+
+        try (QuestionBatchLoader loader = new QuestionBatchLoader(questionRepository, 3, Duration.ofMinutes(1))) {
+            List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+            for (long id = 0; id < 6; id++)
+                futures.add(loader.load(id));
+            // both batches are full, nothing waits for the one minute window
+            futures.forEach(CompletableFuture::join);
+        }
+        verify(questionRepository, times(2)).findQuestionsByExamIds(argThat(ids -> ids.size() == 3));
+    }
+
+    @Test
+    void testFailureReachesEveryWaiter() {
+        when(questionRepository.findQuestionsByExamIds(anyCollection())).thenThrow(IllegalStateException.class);
+
+        try (QuestionBatchLoader loader = new QuestionBatchLoader(questionRepository, 10, Duration.ofMillis(10))) {
+            CompletableFuture<List<String>> first = loader.load(5L);
+            CompletableFuture<List<String>> second = loader.load(6L);
+            assertThrows(CompletionException.class, first::join);
+            assertThrows(CompletionException.class, second::join);
+        }
+    }
+
+    @Test
+    void testLoadAfterCloseFails() {
+        QuestionBatchLoader loader = new QuestionBatchLoader(questionRepository, 10, Duration.ofMillis(10));
+        loader.close();
+        assertThrows(IllegalStateException.class, () -> loader.load(5L));
+        verifyNoInteractions(questionRepository);
+    }
+
+    // a dispatcher that refuses the batch must not leave its waiters hanging
+    @Test
+    void testRejectedBatchFailsItsFutures() {
+        try (QuestionBatchLoader loader = new QuestionBatchLoader(questionRepository, 2, Duration.ofMinutes(1),
+                task -> {
+                    throw new RejectedExecutionException("shut down");
+                })) {
+            CompletableFuture<List<String>> first = loader.load(5L);
+            CompletableFuture<List<String>> second = loader.load(6L);
+            CompletionException e = assertThrows(CompletionException.class, first::join);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertTrue(second.isCompletedExceptionally());
+        }
+    }
+
+    private static Map<Long, List<String>> questionsFor(Collection<Long> ids) {
+        Map<Long, List<String>> questions = new LinkedHashMap<>();
+        for (Long id : ids)
+            questions.put(id, Arrays.asList("question " + id));
+        return questions;
+    }
+}
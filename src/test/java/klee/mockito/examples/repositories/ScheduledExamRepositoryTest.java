@@ -0,0 +1,125 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.services.AsyncExamServiceImpl;
+import klee.mockito.examples.services.BulkSaveReport;
+import klee.mockito.examples.services.ExamBulkSaver;
+import klee.mockito.examples.services.ExamServiceImpl;
+import klee.mockito.examples.services.IExamService;
+import klee.mockito.examples.scheduling.PriorityClass;
+import klee.mockito.examples.scheduling.PriorityScope;
+import klee.mockito.examples.scheduling.RepositoryScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledExamRepositoryTest {
+    @Mock
+    IExamRepository examRepository;
+
+    @Mock
+    RepositoryScheduler scheduler;
+
+    ScheduledExamRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(scheduler.call(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        repository = new ScheduledExamRepository(examRepository, scheduler);
+    }
+
+    @Test
+    void testReadsAreInteractiveAndWritesBatch() {
+        Exam exam = new Exam(1L, "Math");
+        when(examRepository.findAll()).thenReturn(List.of(exam));
+        when(examRepository.save(exam)).thenReturn(exam);
+
+        assertEquals(List.of(exam), repository.findAll());
+        assertSame(exam, repository.save(exam));
+
+        verify(scheduler).call(eq(PriorityClass.INTERACTIVE), any());
+        verify(scheduler).call(eq(PriorityClass.BATCH), any());
+    }
+
+    // pages and name lookups of a streaming delegate are scheduled reads as well
+    @Test
+    void testStreamingDelegateStaysStreaming() {
+        IStreamingExamRepository streaming = mock(IStreamingExamRepository.class);
+        Exam exam = new Exam(1L, "Math");
+        when(streaming.findPage(null, 2)).thenReturn(List.of(exam));
+        when(streaming.findFirstByName("Math")).thenReturn(Optional.of(exam));
+
+        IStreamingExamRepository scheduled = assertInstanceOf(IStreamingExamRepository.class, ScheduledExamRepository.of(streaming, scheduler));
+        assertEquals(List.of(exam), scheduled.streamAll(2).toList());
+        assertEquals(Optional.of(exam), scheduled.findFirstByName("Math"));
+
+        verify(scheduler, times(2)).call(eq(PriorityClass.INTERACTIVE), any());
+        verify(streaming, never()).findAll();
+        assertFalse(ScheduledExamRepository.of(examRepository, scheduler) instanceof IStreamingExamRepository);
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void testScopeOverridesTheDefault() {
+        try (PriorityScope ignored = PriorityScope.open(PriorityClass.BATCH)) {
+            repository.findAll();
+            try (PriorityScope nested = PriorityScope.open(PriorityClass.INTERACTIVE)) {
+                repository.save(new Exam(null, "Physics"));
+            }
+            repository.findById(1L);
+        }
+
+        verify(scheduler, times(2)).call(eq(PriorityClass.BATCH), any());
+        verify(scheduler).call(eq(PriorityClass.INTERACTIVE), any());
+        assertEquals(PriorityClass.INTERACTIVE, PriorityScope.currentOr(PriorityClass.INTERACTIVE));
+    }
+
+    // the import runs its batches on other threads, they still run in the importer's scope
+    @Test
+    @SuppressWarnings("try")
+    void testScopeFollowsBulkImportFanOut() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ExamBulkSaver saver = new ExamBulkSaver(repository, mock(IQuestionRepository.class), 2, 2, executor);
+        when(examRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        try (PriorityScope ignored = PriorityScope.open(PriorityClass.INTERACTIVE)) {
+            BulkSaveReport report = saver.saveAll(List.of(new Exam(null, "Math"), new Exam(null, "English"), new Exam(null, "History")));
+            assertEquals(3, report.savedCount());
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(scheduler, times(2)).call(eq(PriorityClass.INTERACTIVE), any());
+        verify(scheduler, never()).call(eq(PriorityClass.BATCH), any());
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void testScopeFollowsAsyncCalls() throws Exception {
+        when(examRepository.findAll()).thenReturn(List.of(new Exam(5L, "Math")));
+        IExamService service = new ExamServiceImpl(repository, mock(IQuestionRepository.class));
+
+        try (AsyncExamServiceImpl async = new AsyncExamServiceImpl(service);
+             PriorityScope ignored = PriorityScope.open(PriorityClass.BATCH)) {
+            assertEquals(5L, async.findExamByName("Math").get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        }
+
+        verify(scheduler).call(eq(PriorityClass.BATCH), any());
+    }
+}
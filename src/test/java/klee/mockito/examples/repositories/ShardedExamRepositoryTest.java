@@ -0,0 +1,132 @@
+package klee.mockito.examples.repositories;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.services.ExamServiceImpl;
+import klee.mockito.examples.services.IExamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ShardedExamRepositoryTest {
+    ExecutorService executor;
+    ShardedExamRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        repository = new ShardedExamRepository(4, Exam::getId, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        executor.shutdownNow();
+    }
+
+    // ids are global, findAll and pages merge the shards back in id order
+    @Test
+    void testIdOrderAcrossShards() {
+        for (int i = 0; i < 100; i++)
+            repository.save(new Exam(null, "Exam " + i));
+
+        List<Exam> all = repository.findAll();
+        assertEquals(100, all.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i + 1L, all.get(i).getId());
+        assertTrue(Arrays.stream(repository.shardSizes()).allMatch(size -> size > 0));
+
+        List<Exam> page = repository.findPage(40L, 10);
+        assertEquals(41L, page.get(0).getId());
+        assertEquals(50L, page.get(9).getId());
+        assertEquals(100, repository.streamAll(7).count());
+    }
+
+    // several shards match, the smallest id wins like in a sequential scan
+    @Test
+    void testFindFirstByName() {
+        List<Exam> exams = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+            exams.add(new Exam(null, i % 1000 == 999 ? "Math " + i : "Exam " + i));
+        repository.saveAll(exams);
+
+        assertEquals(1000L, repository.findFirstByName("Math").orElseThrow().getId());
+        assertFalse(repository.findFirstByName("Physics").isPresent());
+
+        IExamService service = new ExamServiceImpl(repository, mock(IQuestionRepository.class));
+        assertEquals(1000L, service.findExamByName("Math").orElseThrow().getId());
+    }
+
+    // a tenant key keeps the tenant together, moving tenants moves the exam
+    @Test
+    void testTenantRouting() {
+        ShardedExamRepository byTenant = new ShardedExamRepository(8, exam -> exam.getName().split(":")[0], executor);
+        for (int i = 0; i < 20; i++)
+            byTenant.save(new Exam(null, "uni-a:Exam " + i));
+        assertEquals(1, Arrays.stream(byTenant.shardSizes()).filter(size -> size > 0).count());
+
+        Exam moved = byTenant.findById(3L).orElseThrow();
+        byTenant.save(new Exam(moved.getId(), "uni-b:Exam 3"));
+        assertEquals(20, byTenant.findAll().size());
+        assertEquals(20, Arrays.stream(byTenant.shardSizes()).sum());
+        assertEquals("uni-b:Exam 3", byTenant.findById(3L).orElseThrow().getName());
+    }
+
+    // the shard writes queue behind a blocked task, a merge made meanwhile must not be cached
+    @Test
+    void testFindAllDuringSaveAllIsNotCached() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try (ShardedExamRepository blocked = new ShardedExamRepository(2, Exam::getId, single)) {
+            blocked.save(new Exam(null, "Exam 0"));
+            CountDownLatch release = new CountDownLatch(1);
+            single.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            List<Exam> batch = List.of(new Exam(null, "Exam 1"), new Exam(null, "Exam 2"));
+            CompletableFuture<List<Exam>> saving = CompletableFuture.supplyAsync(() -> blocked.saveAll(batch));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (blocked.size() < 3 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+
+            List<Exam> during = blocked.findAll();
+            assertNotSame(during, blocked.findAll());
+            release.countDown();
+            saving.get(5, TimeUnit.SECONDS);
+
+            List<Exam> after = blocked.findAll();
+            assertEquals(3, after.size());
+            assertSame(after, blocked.findAll());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRebalance() {
+        for (int i = 0; i < 200; i++)
+            repository.save(new Exam(null, "Exam " + i));
+        List<Exam> before = repository.findAll();
+
+        repository.rebalance(7);
+        assertEquals(7, repository.shardCount());
+        assertEquals(before, repository.findAll());
+        assertEquals(150L, repository.findById(150L).orElseThrow().getId());
+        assertEquals(201L, repository.save(new Exam(null, "After")).getId());
+        assertEquals(201, Arrays.stream(repository.shardSizes()).sum());
+    }
+}
@@ -0,0 +1,85 @@
+package klee.mockito.examples.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindQuestionRepositoryTest {
+    @Mock
+    IQuestionRepository questionRepository;
+
+    @Test
+    void testWritesAreCoalesced() {
+        try (WriteBehindQuestionRepository repository =
+                     new WriteBehindQuestionRepository(questionRepository, 100, 1_000, Duration.ofMinutes(1))) {
+            repository.saveMany(Arrays.asList("arithmetic", "integrals"));
+            repository.saveMany(Arrays.asList("geometry"));
+            verifyNoInteractions(questionRepository);
+
+            repository.flush();
+            verify(questionRepository).saveMany(Arrays.asList("arithmetic", "integrals", "geometry"));
+            assertEquals(0, repository.pendingWrites());
+            assertEquals(1, repository.getBatchCount());
+        }
+    }
+
+    @Test
+    void testSizeThresholdFlushesInTheBackground() {
+        try (WriteBehindQuestionRepository repository =
+                     new WriteBehindQuestionRepository(questionRepository, 100, 3, Duration.ofMinutes(1))) {
+            repository.saveMany(Arrays.asList("arithmetic", "integrals"));
+            repository.saveMany(Arrays.asList("geometry"));
+            verify(questionRepository, timeout(2_000)).saveMany(Arrays.asList("arithmetic", "integrals", "geometry"));
+        }
+    }
+
+    // pending writes reach the backend before the read does
+    @Test
+    void testReadYourWrites() {
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(Arrays.asList("arithmetic"));
+        try (WriteBehindQuestionRepository repository =
+                     new WriteBehindQuestionRepository(questionRepository, 100, 1_000, Duration.ofMinutes(1))) {
+            repository.saveMany(Arrays.asList("arithmetic"));
+            List<String> questions = repository.findQuestionsByExamId(5L);
+
+            assertEquals(Arrays.asList("arithmetic"), questions);
+            InOrder inOrder = inOrder(questionRepository);
+            inOrder.verify(questionRepository).saveMany(anyList());
+            inOrder.verify(questionRepository).findQuestionsByExamId(5L);
+        }
+    }
+
+    @Test
+    void testCloseDrainsTheBuffer() {
+        WriteBehindQuestionRepository repository =
+                new WriteBehindQuestionRepository(questionRepository, 100, 1_000, Duration.ofMinutes(1));
+        repository.saveMany(Arrays.asList("arithmetic"));
+        repository.close();
+
+        verify(questionRepository).saveMany(Arrays.asList("arithmetic"));
+        assertThrows(IllegalStateException.class, () -> repository.saveMany(Arrays.asList("geometry")));
+    }
+
+    @Test
+    void testFailedFlushIsReportedAndRetried() {
+        doThrow(IllegalStateException.class).doNothing().when(questionRepository).saveMany(anyList());
+        try (WriteBehindQuestionRepository repository =
+                     new WriteBehindQuestionRepository(questionRepository, 100, 1_000, Duration.ofMillis(50))) {
+            repository.saveMany(Arrays.asList("arithmetic"));
+            assertThrows(RuntimeException.class, repository::flush);
+
+            repository.flush();
+            verify(questionRepository, times(2)).saveMany(Arrays.asList("arithmetic"));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package klee.mockito.examples.resilience;
+
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.ResilientQuestionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientCallerTest {
+    static final List<String> QUESTIONS = Arrays.asList("arithmetic", "integrals");
+
+    @Mock
+    IQuestionRepository questionRepository;
+
+    ExecutorService executor;
+    AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        now = new AtomicLong();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDeadlineInterruptsSlowCall() throws InterruptedException {
+        ResilientCaller caller = caller(CallPolicy.defaults().withTimeout(Duration.ofMillis(100)));
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        long start = System.nanoTime();
+        assertThrows(RepositoryUnavailableException.class, () -> caller.call("slow", true, () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return null;
+        }));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        Thread.sleep(100);
+        assertTrue(interrupted.get());
+    }
+
+    // the first attempt hangs, the hedged duplicate answers
+    @Test
+    void testHedgedRequestWins() {
+        ResilientCaller caller = caller(CallPolicy.defaults()
+                .withTimeout(Duration.ofSeconds(5))
+                .withHedging(Duration.ofMillis(50), 0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = caller.call("hedged", true, () -> {
+            if (attempts.incrementAndGet() == 1)
+                sleep(5_000);
+            return "fast";
+        });
+        assertEquals("fast", result);
+        assertEquals(1, caller.hedgeCount("hedged"));
+    }
+
+    @Test
+    void testWritesAreNotHedged() {
+        ResilientCaller caller = caller(CallPolicy.defaults().withHedging(Duration.ofMillis(10), 0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        caller.call("write", false, () -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return null;
+        });
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testBreakerOpensAndRecovers() {
+        ResilientCaller caller = caller(CallPolicy.defaults().withBreaker(4, 4, 0.5, Duration.ofSeconds(30)));
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> caller.call("failing", true, () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException();
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, caller.breakerState("failing"));
+
+        // fails fast without reaching the backend
+        assertThrows(RepositoryUnavailableException.class, () -> caller.call("failing", true, calls::incrementAndGet));
+        assertEquals(4, calls.get());
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertEquals(5, caller.call("failing", true, calls::incrementAndGet));
+        assertEquals(CircuitBreaker.State.CLOSED, caller.breakerState("failing"));
+    }
+
+    // an interrupted probe must not leave the breaker half open for good
+    @Test
+    void testInterruptedProbeIsGivenBack() {
+        ResilientCaller caller = caller(CallPolicy.defaults().withBreaker(2, 2, 0.5, Duration.ofSeconds(30)));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> caller.call("probe", true, () -> {
+                throw new IllegalStateException();
+            }));
+        }
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        Thread.currentThread().interrupt();
+        assertThrows(RepositoryUnavailableException.class, () -> caller.call("probe", true, () -> {
+            sleep(5_000);
+            return "late";
+        }));
+        assertTrue(Thread.interrupted());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, caller.breakerState("probe"));
+
+        assertEquals("ok", caller.call("probe", true, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, caller.breakerState("probe"));
+    }
+
+    @Test
+    void testStaleQuestionsWhileUnavailable() {
+        ResilientCaller caller = caller(CallPolicy.defaults().withTimeout(Duration.ofMillis(100)));
+        IQuestionRepository repository = new ResilientQuestionRepository(questionRepository, caller, 100);
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(QUESTIONS).then(invocation -> {
+            Thread.sleep(5_000);
+            return null;
+        });
+
+        assertEquals(QUESTIONS, repository.findQuestionsByExamId(5L));
+        assertEquals(QUESTIONS, repository.findQuestionsByExamId(5L));
+        when(questionRepository.findQuestionsByExamId(6L)).then(invocation -> {
+            Thread.sleep(5_000);
+            return null;
+        });
+        assertThrows(RepositoryUnavailableException.class, () -> repository.findQuestionsByExamId(6L));
+    }
+
+    private ResilientCaller caller(CallPolicy policy) {
+        return new ResilientCaller(policy, Map.of(), executor, now::get);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package klee.mockito.examples.scheduling;
+
+import klee.mockito.examples.resilience.RepositoryUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositorySchedulerTest {
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testInteractiveCallsGoBeforeQueuedBatchCalls() throws Exception {
+        RepositoryScheduler scheduler = new RepositoryScheduler(SchedulerPolicy.defaults().withConcurrency(1, 0));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<?> running = executor.submit(() -> scheduler.run(PriorityClass.BATCH, () -> await(release)));
+        awaitTrue(() -> scheduler.running() == 1);
+        Future<?> batch = executor.submit(() -> scheduler.run(PriorityClass.BATCH, () -> order.add("batch")));
+        awaitTrue(() -> scheduler.queueLength(PriorityClass.BATCH) == 1);
+        Future<?> interactive = executor.submit(() -> scheduler.run(PriorityClass.INTERACTIVE, () -> order.add("interactive")));
+        awaitTrue(() -> scheduler.queueLength(PriorityClass.INTERACTIVE) == 1);
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        batch.get(5, TimeUnit.SECONDS);
+        interactive.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("interactive", "batch"), order);
+        assertEquals(0, scheduler.running());
+    }
+
+    @Test
+    void testReservedSlotsStayFreeForInteractiveCalls() throws Exception {
+        RepositoryScheduler scheduler = new RepositoryScheduler(SchedulerPolicy.defaults().withConcurrency(2, 1));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> first = executor.submit(() -> scheduler.run(PriorityClass.BATCH, () -> await(release)));
+        awaitTrue(() -> scheduler.running() == 1);
+        Future<?> second = executor.submit(() -> scheduler.run(PriorityClass.BATCH, () -> {
+        }));
+        awaitTrue(() -> scheduler.queueLength(PriorityClass.BATCH) == 1);
+
+        // the second batch call waits, an interactive one still gets the reserved slot
+        assertEquals("found", scheduler.call(PriorityClass.INTERACTIVE, () -> "found"));
+        assertEquals(1, scheduler.queueLength(PriorityClass.BATCH));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testRateLimitedCallGivesUpAfterMaxQueueWait() {
+        AtomicLong now = new AtomicLong();
+        SchedulerPolicy policy = SchedulerPolicy.defaults()
+                .withRate(PriorityClass.BATCH, 1, 1)
+                .withMaxQueueWait(Duration.ofMillis(50));
+        RepositoryScheduler scheduler = new RepositoryScheduler(policy, now::get);
+
+        scheduler.run(PriorityClass.BATCH, () -> {
+        });
+        assertThrows(RepositoryUnavailableException.class, () -> scheduler.run(PriorityClass.BATCH, () -> {
+        }));
+        assertEquals(1, scheduler.getRejectedCount());
+        assertEquals(0, scheduler.queueLength(PriorityClass.BATCH));
+
+        // the batch limit doesn't touch interactive calls
+        assertEquals(1, scheduler.call(PriorityClass.INTERACTIVE, () -> 1));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, scheduler.call(PriorityClass.BATCH, () -> 2));
+    }
+
+    @Test
+    void testInterruptedWaitLeavesTheQueue() throws Exception {
+        RepositoryScheduler scheduler = new RepositoryScheduler(SchedulerPolicy.defaults().withConcurrency(1, 0));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = executor.submit(() -> scheduler.run(PriorityClass.BATCH, () -> await(release)));
+        awaitTrue(() -> scheduler.running() == 1);
+
+        Thread.currentThread().interrupt();
+        assertThrows(RepositoryUnavailableException.class, () -> scheduler.call(PriorityClass.INTERACTIVE, () -> 1));
+        assertTrue(Thread.interrupted());
+        assertEquals(0, scheduler.queueLength(PriorityClass.INTERACTIVE));
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFailingCallReleasesItsSlot() {
+        RepositoryScheduler scheduler = new RepositoryScheduler(SchedulerPolicy.defaults().withConcurrency(1, 0));
+
+        assertThrows(IllegalStateException.class, () -> scheduler.call(PriorityClass.INTERACTIVE, () -> {
+            throw new IllegalStateException("backend down");
+        }));
+
+        assertEquals(0, scheduler.running());
+        assertEquals(Collections.emptyList(), scheduler.call(PriorityClass.BATCH, Collections::emptyList));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                fail("condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
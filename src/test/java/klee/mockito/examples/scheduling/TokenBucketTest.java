@@ -0,0 +1,66 @@
+package klee.mockito.examples.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenRefill() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 3, now::get);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        assertEquals(Duration.ofMillis(100).toNanos(), bucket.nanosUntilAvailable());
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertEquals(0, bucket.nanosUntilAvailable());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testRefillIsCappedAtBurst() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testZeroRateIsUnlimited() {
+        TokenBucket bucket = new TokenBucket(0, 0);
+
+        assertTrue(bucket.isUnlimited());
+        for (int i = 0; i < 1000; i++)
+            assertTrue(bucket.tryAcquire());
+        assertEquals(0, bucket.nanosUntilAvailable());
+    }
+
+    // System.nanoTime may start anywhere, also next to the overflow
+    @Test
+    void testRefillAcrossNanoTimeOverflow() {
+        AtomicLong now = new AtomicLong(Long.MAX_VALUE - Duration.ofMillis(50).toNanos());
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+
+        assertTrue(now.get() < 0);
+        assertTrue(bucket.tryAcquire());
+    }
+}
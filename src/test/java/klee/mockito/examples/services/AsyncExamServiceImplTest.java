@@ -0,0 +1,67 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncExamServiceImplTest {
+    @Mock
+    IExamService examService;
+
+    AsyncExamServiceImpl asyncService;
+
+    @BeforeEach
+    void setUp() {
+        asyncService = new AsyncExamServiceImpl(examService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    @Test
+    void testFindExamByName() {
+        when(examService.findExamByName("Math")).thenReturn(Optional.of(Data.EXAMS.get(0)));
+        Optional<Exam> exam = asyncService.findExamByName("Math").join();
+        assertEquals(5L, exam.orElseThrow().getId());
+    }
+
+    @Test
+    void testFanOut() {
+        when(examService.findExamByNameWithQuestions(anyString())).then(invocation -> {
+            Thread.sleep(100);
+            return new Exam(5L, invocation.getArgument(0));
+        });
+
+        List<CompletableFuture<Exam>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            futures.add(asyncService.findExamByNameWithQuestions("Math" + i));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        assertEquals("Math199", futures.get(199).join().getName());
+        verify(examService, times(200)).findExamByNameWithQuestions(anyString());
+    }
+
+    @Test
+    void testFailurePropagates() {
+        when(examService.save(any(Exam.class))).thenThrow(IllegalArgumentException.class);
+        CompletionException exception = assertThrows(CompletionException.class, () ->
+                asyncService.save(new Exam(null, "Physics")).join());
+        assertEquals(IllegalArgumentException.class, exception.getCause().getClass());
+    }
+}
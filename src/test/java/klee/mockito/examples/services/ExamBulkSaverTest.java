@@ -0,0 +1,89 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.IExamRepository;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExamBulkSaverTest {
+    @Mock
+    IExamRepository examRepository;
+    @Mock
+    IQuestionRepository questionRepository;
+
+    @Test
+    void testBatchesKeepInputOrder() {
+        AtomicLong sequence = new AtomicLong(1);
+        when(examRepository.saveAll(anyList())).then(invocation -> {
+            List<Exam> batch = invocation.getArgument(0);
+            batch.forEach(exam -> exam.setId(sequence.getAndIncrement()));
+            return batch;
+        });
+
+        ExamBulkSaver saver = new ExamBulkSaver(examRepository, questionRepository, 3, 2, null);
+        List<Exam> exams = exams(7);
+        BulkSaveReport report = saver.saveAll(exams);
+
+        assertTrue(report.isSuccess());
+        assertEquals(3, report.batches().size());
+        assertEquals(7, report.savedCount());
+        for (int i = 0; i < exams.size(); i++)
+            assertEquals(i + 1L, exams.get(i).getId());
+        verify(questionRepository, times(3)).saveMany(anyList());
+        InOrder inOrder = inOrder(examRepository);
+        inOrder.verify(examRepository).saveAll(argThat(batch -> batch.get(0).getName().equals("Exam 0")));
+        inOrder.verify(examRepository).saveAll(argThat(batch -> batch.get(0).getName().equals("Exam 3")));
+        inOrder.verify(examRepository).saveAll(argThat(batch -> batch.get(0).getName().equals("Exam 6")));
+    }
+
+    // a failing batch is reported and doesn't stop the rest of the import
+    @Test
+    void testFailedBatchIsReported() {
+        when(examRepository.saveAll(anyList())).then(invocation -> invocation.getArgument(0));
+        doNothing().doThrow(IllegalArgumentException.class).doNothing().when(questionRepository).saveMany(anyList());
+
+        ExamBulkSaver saver = new ExamBulkSaver(examRepository, questionRepository, 2, 1, Runnable::run);
+        BulkSaveReport report = saver.saveAll(exams(6));
+
+        assertFalse(report.isSuccess());
+        assertEquals(4, report.savedCount());
+        assertEquals(2, report.failedCount());
+        assertEquals(IllegalArgumentException.class, report.batches().get(1).failure().getClass());
+        verify(examRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testServiceSaveAllFromStream() {
+        when(examRepository.saveAll(anyList())).then(invocation -> invocation.getArgument(0));
+        IExamService service = new ExamServiceImpl(examRepository, questionRepository);
+
+        Exam math = new Exam(null, "Math");
+        math.setQuestions(Data.QUESTIONS);
+        BulkSaveReport report = service.saveAll(Stream.of(math, new Exam(null, "English")));
+        assertEquals(2, report.savedCount());
+        verify(questionRepository).saveMany(Data.QUESTIONS);
+    }
+
+    private static List<Exam> exams(int count) {
+        List<Exam> exams = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Exam exam = new Exam(null, "Exam " + i);
+            exam.setQuestions(Data.QUESTIONS);
+            exams.add(exam);
+        }
+        return exams;
+    }
+}
@@ -1,9 +1,12 @@
 package klee.mockito.examples.services;
 
+import klee.mockito.examples.index.ExamNameIndex;
 import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
 import klee.mockito.examples.repositories.ExamRepositoryImpl;
 import klee.mockito.examples.repositories.IExamRepository;
 import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
 import klee.mockito.examples.repositories.QuestionRepositoryImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -60,6 +63,77 @@ class ExamServiceImplTest {
         assertEquals("Math", exam.orElseThrow().getName());
     }
 
+    // the index is built from a single findAll(), later lookups and saves don't touch it again
+    @Test
+    void findExamByNameWithIndex() {
+        IExamService indexedService = new ExamServiceImpl(repository, questionRepository, new ExamNameIndex());
+        when(repository.findAll()).thenReturn(Data.EXAMS);
+        when(repository.save(any(Exam.class))).then(invocation -> {
+            Exam exam = invocation.getArgument(0);
+            exam.setId(8L);
+            return exam;
+        });
+
+        assertEquals(5L, indexedService.findExamByName("Math").orElseThrow().getId());
+        assertEquals(7L, indexedService.findExamByName("Hist").orElseThrow().getId());
+        assertFalse(indexedService.findExamByName("Physics").isPresent());
+        indexedService.save(new Exam(null, "Physics"));
+        assertEquals(8L, indexedService.findExamByName("Physics").orElseThrow().getId());
+        verify(repository, times(1)).findAll();
+    }
+
+    // the exam held by the repository is not mutated by the read path
+    @Test
+    void testQuestionsExamDoesNotMutateRepositoryExam() {
+        Exam stored = new Exam(5L, "Math");
+        when(repository.findAll()).thenReturn(Collections.singletonList(stored));
+        when(questionRepository.findQuestionsByExamId(5L)).thenReturn(Data.QUESTIONS);
+
+        Exam exam = service.findExamByNameWithQuestions("Math");
+        assertNotSame(stored, exam);
+        assertEquals(Data.QUESTIONS, exam.getQuestions());
+        assertTrue(stored.getQuestions().isEmpty());
+
+        ExamView view = service.findExamViewByName("Math").orElseThrow();
+        assertEquals(5L, view.id());
+        assertEquals(Data.QUESTIONS, view.questions());
+    }
+
+    @Test
+    void searchExams() {
+        when(repository.findAll()).thenReturn(Data.EXAMS);
+
+        List<Exam> result = service.searchExams("hist", 5);
+        assertEquals(1, result.size());
+        assertEquals(7L, result.get(0).getId());
+        // typos are only forgiven by the index
+        assertTrue(service.searchExams("Histroy", 5).isEmpty());
+        assertTrue(service.searchExams("Physics", 5).isEmpty());
+    }
+
+    @Test
+    void searchExamsWithIndex() {
+        IExamService indexedService = new ExamServiceImpl(repository, questionRepository, new ExamNameIndex());
+        when(repository.findAll()).thenReturn(Data.EXAMS);
+
+        assertEquals(7L, indexedService.searchExams("hist", 5).get(0).getId());
+        assertEquals(7L, indexedService.searchExams("Histroy", 5).get(0).getId());
+        verify(repository, times(1)).findAll();
+    }
+
+    // a streaming repository is paged lazily, only the first page is read for an early match
+    @Test
+    void findExamByNameStreaming() {
+        InMemoryExamRepository examRepository = spy(new InMemoryExamRepository());
+        for (int i = 0; i < 5_000; i++)
+            examRepository.save(new Exam(null, "Exam " + i));
+        IExamService streamingService = new ExamServiceImpl(examRepository, questionRepository);
+
+        assertEquals(11L, streamingService.findExamByName("Exam 10").orElseThrow().getId());
+        verify(examRepository, times(1)).findPage(isNull(), anyInt());
+        verify(examRepository, never()).findAll();
+    }
+
     @Test
     void findExamByNameEmptyList() {
         List<Exam> data = Collections.emptyList();
@@ -300,16 +374,46 @@ class ExamServiceImplTest {
         verify(questionRepository, atMostOnce()).findQuestionsByExamId(5L);
     }
 
+    // questions are fetched once per request now, the duplicate fetch was removed
     @Test
     void testInvocationsNumber2() {
         when(repository.findAll()).thenReturn(Data.EXAMS);
         service.findExamByNameWithQuestions("Math");
-        // verify(questionRepository).findQuestionsByExamId(5L); // fails
-        verify(questionRepository, times(2)).findQuestionsByExamId(5L);
-        verify(questionRepository, atLeast(2)).findQuestionsByExamId(5L);
+        verify(questionRepository, times(1)).findQuestionsByExamId(5L);
         verify(questionRepository, atLeastOnce()).findQuestionsByExamId(5L);
         verify(questionRepository, atMost(20)).findQuestionsByExamId(5L);
-        // verify(questionRepository, atMostOnce()).findQuestionsByExamId(5L); // fails
+        verify(questionRepository, atMostOnce()).findQuestionsByExamId(5L);
+    }
+
+    // a request scope opened by the caller is shared by every service call inside it
+    @Test
+    @SuppressWarnings("try")
+    void testRequestMemo() {
+        when(repository.findAll()).thenReturn(Data.EXAMS);
+        when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
+        try (RequestMemo ignored = RequestMemo.open()) {
+            service.findExamByNameWithQuestions("Math");
+            service.findExamByNameWithQuestions("Math");
+            service.findExamByNameWithQuestions("English");
+        }
+        service.findExamByNameWithQuestions("Math");
+        verify(questionRepository, times(2)).findQuestionsByExamId(5L);
+        verify(questionRepository, times(1)).findQuestionsByExamId(6L);
+    }
+
+    // same argument, different operations: each keeps its own result
+    @Test
+    @SuppressWarnings("try")
+    void testRequestMemoKeysByOperation() {
+        try (RequestMemo ignored = RequestMemo.open()) {
+            assertEquals(Data.QUESTIONS, RequestMemo.memoize(Lookup.QUESTIONS, 5L, () -> Data.QUESTIONS));
+            assertEquals("Math", RequestMemo.memoize(Lookup.NAME, 5L, () -> "Math"));
+            assertEquals(Data.QUESTIONS, RequestMemo.memoize(Lookup.QUESTIONS, 5L, () -> List.of()));
+        }
+    }
+
+    enum Lookup {
+        QUESTIONS, NAME
     }
 
     @Test
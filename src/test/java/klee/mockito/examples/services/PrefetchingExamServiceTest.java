@@ -0,0 +1,87 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrefetchingExamServiceTest {
+    @Mock
+    IExamService examService;
+    @Mock
+    IQuestionRepository questionRepository;
+
+    ExecutorService executor;
+    PrefetchingExamService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        service = new PrefetchingExamService(examService, questionRepository, executor, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testColdNameIsSequential() {
+        Exam math = new Exam(5L, "Math");
+        when(examService.findExamByNameWithQuestions("Math")).thenReturn(math);
+
+        assertSame(math, service.findExamByNameWithQuestions("Math"));
+        verifyNoInteractions(questionRepository);
+    }
+
+    // on a warm name the exam lookup only returns once the question fetch has started
+    @Test
+    void testWarmNameFetchesQuestionsInParallel() {
+        CountDownLatch questionsStarted = new CountDownLatch(1);
+        when(examService.findExamByName("Math")).then(invocation -> {
+            boolean parallel = questionsStarted.await(5, TimeUnit.SECONDS);
+            return parallel ? Optional.of(new Exam(5L, "Math")) : Optional.empty();
+        });
+        when(questionRepository.findQuestionsByExamId(5L)).then(invocation -> {
+            questionsStarted.countDown();
+            return Data.QUESTIONS;
+        });
+        when(examService.findExamByNameWithQuestions("Math")).thenReturn(new Exam(5L, "Math"));
+
+        service.findExamByNameWithQuestions("Math");
+        Exam exam = service.findExamByNameWithQuestions("Math");
+
+        assertNotNull(exam);
+        assertEquals(Data.QUESTIONS, exam.getQuestions());
+        assertEquals(1, service.getPrefetchHitCount());
+        verify(questionRepository, times(1)).findQuestionsByExamId(5L);
+    }
+
+    @Test
+    void testWrongGuessFallsBack() {
+        when(examService.findExamByNameWithQuestions("Math")).thenReturn(new Exam(5L, "Math"));
+        when(examService.findExamByName("Math")).thenReturn(Optional.of(new Exam(9L, "Math II")));
+        when(questionRepository.findQuestionsByExamId(anyLong())).thenReturn(Data.QUESTIONS);
+
+        service.findExamByNameWithQuestions("Math");
+        Exam exam = service.findExamByNameWithQuestions("Math");
+
+        assertEquals(9L, exam.getId());
+        assertEquals(1, service.getPrefetchMissCount());
+        verify(questionRepository).findQuestionsByExamId(9L);
+    }
+}
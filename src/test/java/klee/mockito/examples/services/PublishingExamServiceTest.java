@@ -0,0 +1,145 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.events.ExamChangeEvent;
+import klee.mockito.examples.events.ExamChangeFeed;
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PublishingExamServiceTest {
+    @Mock
+    IExamService examService;
+
+    ExamChangeFeed feed;
+    List<ExamChangeEvent> events;
+    PublishingExamService service;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ExamChangeFeed();
+        events = Collections.synchronizedList(new ArrayList<>());
+        feed.subscribe(events::addAll);
+        service = new PublishingExamService(examService, feed);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void testSavePublishesCreatedAndQuestions() {
+        when(examService.save(any(Exam.class))).then(invocation -> {
+            Exam exam = invocation.getArgument(0);
+            if (exam.getId() == null)
+                exam.setId(8L);
+            return exam;
+        });
+        Exam physics = new Exam(null, "Physics");
+        physics.setQuestions(Data.QUESTIONS);
+
+        service.save(physics);
+        service.save(new Exam(5L, "Math"));
+        feed.close();
+
+        assertEquals(List.of(ExamChangeEvent.Type.CREATED, ExamChangeEvent.Type.QUESTIONS_ADDED, ExamChangeEvent.Type.UPDATED),
+                events.stream().map(ExamChangeEvent::type).toList());
+        assertEquals(8L, events.get(0).exam().id());
+        assertEquals(Data.QUESTIONS, events.get(1).exam().questions());
+        assertEquals(5L, events.get(2).exam().id());
+    }
+
+    @Test
+    void testFailedSavePublishesNothing() {
+        when(examService.save(any(Exam.class))).thenThrow(new IllegalStateException("down"));
+        assertThrows(IllegalStateException.class, () -> service.save(new Exam(null, "Physics")));
+        feed.close();
+        assertTrue(events.isEmpty());
+    }
+
+    // only the batches that were written are published
+    @Test
+    void testSaveAllPublishesSavedBatches() {
+        when(examService.saveAll(anyIterable())).then(invocation -> {
+            Iterable<Exam> exams = invocation.getArgument(0);
+            Iterator<Exam> iterator = exams.iterator();
+            Exam first = iterator.next();
+            first.setId(10L);
+            Exam second = iterator.next();
+            Exam third = iterator.next();
+            return new BulkSaveReport(List.of(
+                    new BulkSaveReport.BatchResult(0, 2, List.of(first, second), null),
+                    new BulkSaveReport.BatchResult(1, 1, List.of(), new IllegalStateException("down"))));
+        });
+
+        service.saveAll(List.of(new Exam(null, "Physics"), new Exam(6L, "English"), new Exam(null, "Chemistry")));
+        feed.close();
+
+        assertEquals(2, events.size());
+        assertEquals(ExamChangeEvent.Type.CREATED, events.get(0).type());
+        assertEquals(10L, events.get(0).exam().id());
+        assertEquals(ExamChangeEvent.Type.UPDATED, events.get(1).type());
+        assertEquals(6L, events.get(1).exam().id());
+    }
+
+    // the first batch is out on the feed before the second one is written
+    @Test
+    void testSaveAllPublishesEachBatchWhenWritten() {
+        PublishingExamService batched = new PublishingExamService(examService, feed, 2);
+        List<Long> publishedBefore = new ArrayList<>();
+        when(examService.saveAll(anyIterable())).then(invocation -> {
+            publishedBefore.add(feed.lastSequence());
+            List<Exam> saved = new ArrayList<>();
+            invocation.<Iterable<Exam>>getArgument(0).forEach(saved::add);
+            return new BulkSaveReport(List.of(new BulkSaveReport.BatchResult(0, saved.size(), saved, null)));
+        });
+
+        BulkSaveReport report = batched.saveAll(List.of(new Exam(1L, "Math"), new Exam(2L, "English"), new Exam(3L, "History")));
+
+        assertEquals(List.of(-1L, 1L), publishedBefore);
+        assertEquals(List.of(0, 1), report.batches().stream().map(BulkSaveReport.BatchResult::batch).toList());
+        assertEquals(3, report.savedCount());
+    }
+
+    // concurrent updates of one exam: the last event on the feed is what the repository holds
+    @Test
+    void testConcurrentSavesPublishInWriteOrder() throws Exception {
+        InMemoryExamRepository repository = new InMemoryExamRepository();
+        repository.save(new Exam(null, "Math"));
+        PublishingExamService publishing = new PublishingExamService(
+                new ExamServiceImpl(repository, mock(IQuestionRepository.class)), feed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> saves = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String name = "Math v" + i;
+            saves.add(executor.submit(() -> publishing.save(new Exam(1L, name))));
+        }
+        for (Future<?> save : saves)
+            save.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        feed.close();
+
+        assertEquals(2_000, events.size());
+        assertEquals(repository.findById(1L).orElseThrow().getName(), events.get(events.size() - 1).exam().name());
+    }
+}
@@ -0,0 +1,106 @@
+package klee.mockito.examples.services;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.models.ExamView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightExamServiceTest {
+    @Mock
+    IExamService examService;
+
+    // every caller gets its own Exam built from the one shared view
+    @Test
+    void testBurstSharesOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(examService.findExamViewByName("Math")).then(invocation -> {
+            release.await();
+            return Optional.of(new ExamView(5L, "Math", Data.QUESTIONS));
+        });
+        SingleFlightExamService service = new SingleFlightExamService(examService, Duration.ofSeconds(5));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<Exam>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(() -> service.findExamByNameWithQuestions("Math")));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.getSharedCount() < 7 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            release.countDown();
+
+            List<Exam> exams = new ArrayList<>();
+            for (Future<Exam> result : results)
+                exams.add(result.get(5, TimeUnit.SECONDS));
+            assertEquals(8, exams.stream().distinct().count());
+            assertTrue(exams.stream().allMatch(exam -> exam.getQuestions().equals(Data.QUESTIONS)));
+            verify(examService, times(1)).findExamViewByName("Math");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSharedLookupsReturnSeparateExams() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(examService.findExamByName("Math")).then(invocation -> {
+            release.await();
+            return Optional.of(new Exam(5L, "Math"));
+        });
+        SingleFlightExamService service = new SingleFlightExamService(examService, Duration.ofSeconds(5));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<Optional<Exam>> first = executor.submit(() -> service.findExamByName("Math"));
+            Future<Optional<Exam>> second = executor.submit(() -> service.findExamByName("Math"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.getSharedCount() < 1 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            release.countDown();
+
+            Exam a = first.get(5, TimeUnit.SECONDS).orElseThrow();
+            Exam b = second.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertNotSame(a, b);
+            a.setName("Changed");
+            assertEquals("Math", b.getName());
+            verify(examService, times(1)).findExamByName("Math");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNullNameGoesToDelegate() {
+        when(examService.findExamByName(null)).thenReturn(Optional.empty());
+        SingleFlightExamService service = new SingleFlightExamService(examService, Duration.ofSeconds(5));
+        assertTrue(service.findExamByName(null).isEmpty());
+        assertNull(service.findExamByNameWithQuestions(null));
+        verify(examService).findExamByName(null);
+        verify(examService).findExamViewByName(null);
+    }
+
+    @Test
+    void testWritesAreNotCoalesced() {
+        SingleFlightExamService service = new SingleFlightExamService(examService, Duration.ofSeconds(5));
+        Exam exam = new Exam(null, "Physics");
+        service.save(exam);
+        service.save(exam);
+        verify(examService, times(2)).save(exam);
+    }
+}
@@ -0,0 +1,149 @@
+package klee.mockito.examples.snapshot;
+
+import klee.mockito.examples.models.Exam;
+import klee.mockito.examples.repositories.CachingQuestionRepository;
+import klee.mockito.examples.repositories.IQuestionRepository;
+import klee.mockito.examples.repositories.InMemoryExamRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+    @TempDir
+    Path dir;
+
+    @Mock
+    IQuestionRepository questionRepository;
+
+    @Test
+    void testRoundTrip() {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, catalog());
+        List<Exam> exams = CatalogSnapshot.read(path);
+
+        assertEquals(3, exams.size());
+        assertEquals(5L, exams.get(0).getId());
+        assertEquals("Math", exams.get(0).getName());
+        assertEquals(Arrays.asList("arithmetic", "integrals"), exams.get(0).getQuestions());
+        assertEquals(Arrays.asList("integrals", "ñandú"), exams.get(1).getQuestions());
+        assertNull(exams.get(2).getName());
+        assertTrue(exams.get(2).getQuestions().isEmpty());
+    }
+
+    @Test
+    void testEmptyCatalogRoundTrip() throws IOException {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, List.of());
+
+        assertEquals(16, Files.size(path));
+        assertTrue(CatalogSnapshot.read(path).isEmpty());
+    }
+
+    @Test
+    void testTruncatedSnapshotIsRejected() throws IOException {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, List.of());
+        Files.write(path, Arrays.copyOf(Files.readAllBytes(path), 12));
+
+        assertThrows(IllegalStateException.class, () -> CatalogSnapshot.read(path));
+    }
+
+    // a restored instance answers lookups without going to the question backend
+    @Test
+    void testRestore() {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, catalog());
+
+        InMemoryExamRepository examRepository = new InMemoryExamRepository();
+        CachingQuestionRepository questionCache = new CachingQuestionRepository(questionRepository, 100, Duration.ofHours(1));
+        assertEquals(3, CatalogSnapshot.restore(path, examRepository, questionCache));
+
+        assertEquals("English", examRepository.findById(6L).orElseThrow().getName());
+        assertEquals(8L, examRepository.save(new Exam(null, "History")).getId());
+        assertEquals(Arrays.asList("integrals", "ñandú"), questionCache.findQuestionsByExamId(6L));
+        verifyNoInteractions(questionRepository);
+    }
+
+    @Test
+    void testCorruptedSnapshotIsRejected() throws IOException {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, catalog());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[20] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IllegalStateException.class, () -> CatalogSnapshot.read(path));
+    }
+
+    @Test
+    void testRestoreDoesNotCacheMissingQuestions() {
+        Path path = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, catalog());
+        when(questionRepository.findQuestionsByExamId(7L)).thenReturn(List.of("dates"));
+
+        CachingQuestionRepository questionCache = new CachingQuestionRepository(questionRepository, 100, Duration.ofHours(1));
+        CatalogSnapshot.restore(path, new InMemoryExamRepository(), questionCache);
+
+        assertEquals(2, questionCache.size());
+        assertEquals(List.of("dates"), questionCache.findQuestionsByExamId(7L));
+    }
+
+    // manual snapshots and the scheduled one share the temp file
+    @Test
+    void testConcurrentSnapshots() throws Exception {
+        Path path = dir.resolve("catalog.snapshot");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (CatalogSnapshotter snapshotter = new CatalogSnapshotter(path, CatalogSnapshotTest::catalog, Duration.ofMillis(1))) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < 50; i++)
+                runs.add(executor.submit(snapshotter::snapshot));
+            for (Future<?> run : runs)
+                run.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(3, CatalogSnapshot.read(path).size());
+    }
+
+    @Test
+    void testSnapshotterWritesOnClose() {
+        Path path = dir.resolve("catalog.snapshot");
+        InMemoryExamRepository examRepository = new InMemoryExamRepository();
+        examRepository.saveAll(catalog());
+
+        CatalogSnapshotter snapshotter = new CatalogSnapshotter(path, examRepository::findAll, Duration.ofHours(1));
+        examRepository.save(new Exam(null, "History"));
+        snapshotter.close();
+        assertEquals(4, CatalogSnapshot.read(path).size());
+    }
+
+    private static List<Exam> catalog() {
+        List<Exam> exams = new ArrayList<>();
+        Exam math = new Exam(5L, "Math");
+        math.setQuestions(Arrays.asList("arithmetic", "integrals"));
+        exams.add(math);
+        Exam english = new Exam(6L, "English");
+        english.setQuestions(Arrays.asList("integrals", "ñandú"));
+        exams.add(english);
+        exams.add(new Exam(7L, null));
+        return exams;
+    }
+}